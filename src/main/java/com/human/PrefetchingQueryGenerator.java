@@ -0,0 +1,302 @@
+package com.human;
+
+import com.human.service.MpmcRingBuffer;
+import com.human.service.QueryRandom;
+import com.human.service.QueryResult;
+import com.human.service.UserHandle;
+import com.human.service.UserMix;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Moves generation off the caller's thread. Dedicated producer threads keep a bounded {@link MpmcRingBuffer} of ready
+ * results per user (or one for a user mix) topped up; consumers take results with {@link #poll} or {@link #next}.
+ * A full ring makes its producers back off, and every time a consumer finds a ring empty a starvation is counted, so
+ * a rising starvation count means the producers are falling behind.
+ */
+public class PrefetchingQueryGenerator implements AutoCloseable {
+
+    public static final int DEFAULT_DEPTH = 1024;
+    private static final long IDLE_PARK_NANOS = 100_000;
+
+    private final QueryGenerator generator;
+    private final List<Lane> lanes;
+    private final Map<UserHandle, Lane> lanesByUser = new IdentityHashMap<>();
+    private final Map<String, Lane> lanesByName = new HashMap<>();
+    private final Lane mixLane;
+    private final List<Thread> producers;
+    private final LongAdder errors = new LongAdder();
+    private volatile Throwable lastError;
+    private volatile boolean running = true;
+
+    public PrefetchingQueryGenerator(QueryGenerator generator, List<? extends UserHandle> users, int depth,
+                                     int producerThreads) {
+        this(generator, users, null, depth, producerThreads);
+    }
+
+    public PrefetchingQueryGenerator(QueryGenerator generator, UserMix userMix, int depth, int producerThreads) {
+        this(generator, Collections.<UserHandle>emptyList(), userMix, depth, producerThreads);
+    }
+
+    private PrefetchingQueryGenerator(QueryGenerator generator, List<? extends UserHandle> users, UserMix userMix,
+                                      int depth, int producerThreads) {
+        if (generator == null) {
+            throw new IllegalArgumentException("QueryGenerator cannot be null");
+        }
+        if (users == null || (users.isEmpty() && userMix == null)) {
+            throw new IllegalArgumentException("At least one user is required");
+        }
+        if (depth <= 0) {
+            throw new IllegalArgumentException("Prefetch depth must be positive: " + depth);
+        }
+        if (producerThreads <= 0) {
+            throw new IllegalArgumentException("Producer thread count must be positive: " + producerThreads);
+        }
+        this.generator = generator;
+
+        List<Lane> lanes = new ArrayList<>();
+        for (UserHandle user : users) {
+            if (user == null) {
+                throw new IllegalArgumentException("User handle cannot be null");
+            }
+            if (!lanesByUser.containsKey(user)) {
+                Lane lane = new Lane(user, null, depth);
+                lanes.add(lane);
+                lanesByUser.put(user, lane);
+                lanesByName.put(user.getUserName(), lane);
+            }
+        }
+        this.mixLane = userMix != null ? new Lane(null, userMix, depth) : null;
+        if (mixLane != null) {
+            lanes.add(mixLane);
+        }
+        this.lanes = Collections.unmodifiableList(lanes);
+
+        this.producers = new ArrayList<>(producerThreads);
+        for (int i = 0; i < producerThreads; i++) {
+            int producer = i;
+            Thread thread = new Thread(() -> produce(producer), "querycraft-prefetch-" + i);
+            thread.setDaemon(true);
+            producers.add(thread);
+        }
+        for (Thread thread : producers) {
+            thread.start();
+        }
+    }
+
+    /**
+     * Takes a ready result for the user, or returns {@code null} (counting a starvation) if none is queued yet.
+     */
+    public QueryResult poll(UserHandle userHandle) {
+        return take(lane(userHandle));
+    }
+
+    public QueryResult poll(String userName) {
+        return take(lane(userName));
+    }
+
+    /**
+     * Takes a ready result from the user mix, or returns {@code null} (counting a starvation).
+     */
+    public QueryResult poll() {
+        return take(mixLane());
+    }
+
+    /**
+     * Like {@link #poll(UserHandle)}, but generates on the calling thread when the ring is empty.
+     */
+    public QueryResult next(UserHandle userHandle) {
+        Lane lane = lane(userHandle);
+        QueryResult result = take(lane);
+        return result != null ? result : generator.generateQueries(lane.user);
+    }
+
+    public QueryResult next(String userName) {
+        Lane lane = lane(userName);
+        QueryResult result = take(lane);
+        return result != null ? result : generator.generateQueries(lane.user);
+    }
+
+    public QueryResult next() {
+        Lane lane = mixLane();
+        QueryResult result = take(lane);
+        return result != null ? result : generator.generateQueries(lane.select(generator));
+    }
+
+    public int getFillLevel(UserHandle userHandle) {
+        return lane(userHandle).ring.size();
+    }
+
+    public int getFillLevel() {
+        int fill = 0;
+        for (Lane lane : lanes) {
+            fill += lane.ring.size();
+        }
+        return fill;
+    }
+
+    public int getCapacity() {
+        int capacity = 0;
+        for (Lane lane : lanes) {
+            capacity += lane.ring.capacity();
+        }
+        return capacity;
+    }
+
+    public long getStarvationCount(UserHandle userHandle) {
+        return lane(userHandle).starvations.sum();
+    }
+
+    public long getStarvationCount() {
+        long starvations = 0;
+        for (Lane lane : lanes) {
+            starvations += lane.starvations.sum();
+        }
+        return starvations;
+    }
+
+    public long getProducedCount() {
+        long produced = 0;
+        for (Lane lane : lanes) {
+            produced += lane.produced.sum();
+        }
+        return produced;
+    }
+
+    public long getConsumedCount() {
+        long consumed = 0;
+        for (Lane lane : lanes) {
+            consumed += lane.consumed.sum();
+        }
+        return consumed;
+    }
+
+    /**
+     * Number of generation failures in producer threads; {@link #getLastError()} holds the most recent one.
+     */
+    public long getErrorCount() {
+        return errors.sum();
+    }
+
+    public Throwable getLastError() {
+        return lastError;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Stops the producer threads; results still queued can be polled afterwards.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Thread thread : producers) {
+            LockSupport.unpark(thread);
+        }
+        for (Thread thread : producers) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void produce(int producer) {
+        int laneCount = lanes.size();
+        while (running) {
+            boolean progress = false;
+            for (int i = 0; i < laneCount && running; i++) {
+                try {
+                    progress |= fill(lanes.get((producer + i) % laneCount));
+                } catch (RuntimeException e) {
+                    errors.increment();
+                    lastError = e;
+                }
+            }
+            if (!progress) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+    }
+
+    private boolean fill(Lane lane) {
+        boolean progress = false;
+        while (running && lane.ring.size() < lane.ring.capacity()) {
+            QueryResult result = generator.generateQueries(lane.select(generator));
+            if (result == null || !lane.ring.offer(result)) {
+                break;
+            }
+            lane.produced.increment();
+            progress = true;
+        }
+        return progress;
+    }
+
+    private QueryResult take(Lane lane) {
+        QueryResult result = lane.ring.poll();
+        if (result == null) {
+            lane.starvations.increment();
+        } else {
+            lane.consumed.increment();
+        }
+        return result;
+    }
+
+    private Lane lane(UserHandle userHandle) {
+        Lane lane = lanesByUser.get(userHandle);
+        if (lane == null) {
+            throw new IllegalArgumentException("User is not prefetched: "
+                    + (userHandle != null ? userHandle.getUserName() : null));
+        }
+        return lane;
+    }
+
+    private Lane lane(String userName) {
+        Lane lane = lanesByName.get(userName);
+        if (lane == null) {
+            throw new IllegalArgumentException("User is not prefetched: " + userName);
+        }
+        return lane;
+    }
+
+    private Lane mixLane() {
+        if (mixLane == null) {
+            throw new IllegalStateException("No user mix is prefetched");
+        }
+        return mixLane;
+    }
+
+    private static final class Lane {
+        private final UserHandle user;
+        private final UserMix userMix;
+        private final MpmcRingBuffer<QueryResult> ring;
+        private final LongAdder produced = new LongAdder();
+        private final LongAdder consumed = new LongAdder();
+        private final LongAdder starvations = new LongAdder();
+
+        private Lane(UserHandle user, UserMix userMix, int depth) {
+            this.user = user;
+            this.userMix = userMix;
+            this.ring = new MpmcRingBuffer<>(depth);
+        }
+
+        private UserHandle select(QueryGenerator generator) {
+            if (userMix == null) {
+                return user;
+            }
+            QueryRandom random = generator.getRandomProvider().current();
+            return userMix.select(random);
+        }
+    }
+}
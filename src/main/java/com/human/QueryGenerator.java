@@ -1,226 +1,615 @@
 package com.human;
 
-import com.human.config.*;
+import com.human.config.AppConfig;
 import com.human.enums.TimePeriod;
+import com.human.enums.UserType;
 import com.human.service.*;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.Optional;
-import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public class QueryGenerator {
 
+    private static final int BATCH_TASK_ITERATIONS = 4096;
+    private static final int SPARE_BUFFERS = 64;
+
     private final AppConfig appConfig;
     private final TimeRangeCalculator timeRangeCalculator;
     private final FilterApplier filterApplier;
-    private final QueryTemplateProcessor templateProcessor;
     private final RandomQuerySelector querySelector;
-    private final Random random = new Random();
+    private final RandomProvider randomProvider;
+    private final MpmcRingBuffer<QueryResultBuffer> spareBuffers = new MpmcRingBuffer<>(SPARE_BUFFERS);
+    private final AtomicLong asyncStreamId = new AtomicLong(-1);
+    private final AtomicLong asyncIterations = new AtomicLong();
 
     public QueryGenerator(AppConfig appConfig) {
+        this(appConfig, RandomProvider.unseeded());
+    }
+
+    public QueryGenerator(AppConfig appConfig, RandomProvider randomProvider) {
+        this(appConfig, randomProvider, QueryClock.system());
+    }
+
+    public QueryGenerator(AppConfig appConfig, RandomProvider randomProvider, QueryClock clock) {
         if (appConfig == null) {
             throw new IllegalArgumentException("ImprovedAppConfig cannot be null");
         }
+        if (randomProvider == null) {
+            throw new IllegalArgumentException("RandomProvider cannot be null");
+        }
         this.appConfig = appConfig;
-        this.timeRangeCalculator = new TimeRangeCalculator();
+        this.randomProvider = randomProvider;
+        this.timeRangeCalculator = new TimeRangeCalculator(appConfig.getTimeZone(), clock);
         this.filterApplier = new FilterApplier();
-        this.templateProcessor = new QueryTemplateProcessor();
         this.querySelector = new RandomQuerySelector();
     }
 
     public QueryResult generateQueries(String userName) {
-        if (userName == null || userName.trim().isEmpty()) {
-            throw new IllegalArgumentException("User name cannot be null or empty");
-        }
+        PreparedQueries prepared = prepareQueries(userName);
+        return prepared != null ? prepared.toQueryResult() : null;
+    }
 
-        try {
-            BaseUserConfig userConfig = Optional.ofNullable(appConfig.getUserConfigs().get(userName))
-                    .orElseThrow(() -> new IllegalArgumentException("User config not found: " + userName));
+    public QueryResult generateQueries(UserHandle userHandle) {
+        PreparedQueries prepared = prepareQueries(userHandle);
+        return prepared != null ? prepared.toQueryResult() : null;
+    }
 
-            if (userConfig instanceof StaticUserConfig) {
-                return processStaticUser((StaticUserConfig) userConfig);
-            } else if (userConfig instanceof RandomUserConfig) {
-                return processRandomUser((RandomUserConfig) userConfig);
-            } else {
-                throw new IllegalStateException("Unknown UserType: " + userConfig.getClass().getName());
-            }
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to generate BQL queries for user: " + userName, e);
-        }
+    public QueryResult generateQueries(UserHandle userHandle, long streamId, long iteration) {
+        PreparedQueries prepared = prepareQueries(userHandle, streamId, iteration);
+        return prepared != null ? prepared.toQueryResult() : null;
     }
 
-    private QueryResult processStaticUser(StaticUserConfig config) {
-        try {
-            String timePeriodName;
-            TimeRange timeRange;
-
-            if (config.usesNamedTimePeriods()) {
-                List<TimePeriod> availablePeriods = config.getTimes();
-                if (!availablePeriods.isEmpty()) {
-                    TimePeriod selectedPeriod = availablePeriods.get(random.nextInt(availablePeriods.size()));
-
-                    long currentTime = System.currentTimeMillis() / 1000;
-                    timeRange = timeRangeCalculator.calculateTimeRange(selectedPeriod, config, currentTime);
-
-                    if (selectedPeriod.equals(TimePeriod.CUSTOM)) {
-                        timePeriodName = "Custom";
-                    } else {
-                        timePeriodName = String.format("Last %s", formatTimeInterval(currentTime - timeRange.getLeftBorder()));
-                    }
-                } else {
-                    throw new IllegalStateException("No time periods available for user: " + config.getUserName());
-                }
-            } else {
-                timeRange = timeRangeCalculator.calculateTimeRange(config, System.currentTimeMillis() / 1000);
+    public PreparedQueries prepareQueries(String userName) {
+        return prepareQueries(getUserHandle(userName));
+    }
 
-                long timeRightBorderSeconds = config.getTimeRightBorder();
-                long timeLeftBorderSeconds = config.getTimeLeftBorder();
+    public PreparedQueries prepareQueries(UserHandle userHandle) {
+        UserPlan plan = toPlan(userHandle);
+        return prepare(plan, randomProvider.forUser(plan.getId()));
+    }
+
+    public PreparedQueries prepareQueries(UserHandle userHandle, long streamId, long iteration) {
+        UserPlan plan = toPlan(userHandle);
+        return prepare(plan, randomProvider.forIteration(plan.getId(), streamId, iteration));
+    }
+
+    /**
+     * Generates one iteration into a caller-owned buffer, reusing its arrays and query builders. Returns
+     * {@code false} (and leaves the buffer empty) when a random user selected no queries.
+     */
+    public boolean generateInto(String userName, QueryResultBuffer buffer) {
+        return generateInto(getUserHandle(userName), buffer);
+    }
+
+    public boolean generateInto(UserHandle userHandle, QueryResultBuffer buffer) {
+        UserPlan plan = toPlan(userHandle);
+        return render(fill(plan, randomProvider.forUser(plan.getId()), checkBuffer(buffer)), buffer);
+    }
+
+    public boolean generateInto(UserHandle userHandle, long streamId, long iteration, QueryResultBuffer buffer) {
+        UserPlan plan = toPlan(userHandle);
+        return render(fill(plan, randomProvider.forIteration(plan.getId(), streamId, iteration), checkBuffer(buffer)),
+                buffer);
+    }
+
+    /**
+     * Generates {@code count} iterations for one user. The plan lookup, clock read and random generator fetch happen
+     * once per batch, so every result in the batch shares the same current time. Iterations where a random user
+     * selected no queries are skipped, so the list may be shorter than {@code count}.
+     */
+    public List<QueryResult> generateQueries(String userName, int count) {
+        return generateQueries(getUserHandle(userName), count);
+    }
+
+    public List<QueryResult> generateQueries(UserHandle userHandle, int count) {
+        QueryResult[] results = new QueryResult[checkCount(count)];
+        int generated = generateQueries(userHandle, results, 0, count);
+        return Arrays.asList(results).subList(0, generated);
+    }
 
-                if (timeRightBorderSeconds > 0) {
-                    String leftBorder = formatTimeInterval(timeLeftBorderSeconds);
-                    String rightBorder = formatTimeInterval(timeRightBorderSeconds);
-                    timePeriodName = String.format("From now %s - Last %s", rightBorder, leftBorder);
-                } else {
-                    timePeriodName = String.format("Last %s", formatTimeInterval(timeLeftBorderSeconds));
+    /**
+     * Writes up to {@code count} results into {@code out} starting at {@code offset} and returns how many were written.
+     */
+    public int generateQueries(UserHandle userHandle, QueryResult[] out, int offset, int count) {
+        checkRange(out == null ? -1 : out.length, offset, count);
+        UserPlan plan = toPlan(userHandle);
+        RandomProvider.Batch batch = randomProvider.forBatch(plan.getId(), count);
+        long currentTime = timeRangeCalculator.currentTimeSeconds();
+        QueryResultBuffer buffer = acquireBuffer();
+
+        try {
+            int written = 0;
+            for (int i = 0; i < count; i++) {
+                if (fill(plan, batch.next(), currentTime, buffer)) {
+                    out[offset + written++] = buffer.toQueryResult();
                 }
             }
+            return written;
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
 
-            String appliedFilter = null;
-            if (filterApplier.shouldApplyFilter(config)) {
-                appliedFilter = filterApplier.selectFilter(config, appConfig.getAllFilters());
+    /**
+     * Batch form of {@link #generateInto(UserHandle, QueryResultBuffer)}: fills {@code buffers[offset..offset+count)}
+     * and returns how many of them hold a generated iteration.
+     */
+    public int generateInto(UserHandle userHandle, QueryResultBuffer[] buffers, int offset, int count) {
+        checkRange(buffers == null ? -1 : buffers.length, offset, count);
+        UserPlan plan = toPlan(userHandle);
+        RandomProvider.Batch batch = randomProvider.forBatch(plan.getId(), count);
+        long currentTime = timeRangeCalculator.currentTimeSeconds();
+
+        int written = 0;
+        for (int i = 0; i < count; i++) {
+            QueryResultBuffer buffer = checkBuffer(buffers[offset + written]);
+            if (render(fill(plan, batch.next(), currentTime, buffer), buffer)) {
+                written++;
             }
+        }
+        return written;
+    }
 
-            String userName = config.getUserName();
-            if (appliedFilter != null) {
-                userName = userName + " with filter";
-            }
+    /**
+     * Lazy, unbounded stream of iterations for one user; bound it with {@code limit} or use the sized overload.
+     * The spliterator splits for {@code parallel()} use and every split draws from its own random stream. With a
+     * seeded provider each element is derived from (seed, user, stream, position), so the output does not depend on
+     * how the stream was split.
+     */
+    public Stream<QueryResult> stream(String userName) {
+        return stream(getUserHandle(userName));
+    }
 
-            List<String> selectedQueries = selectQueriesFromStaticConfig(config);
+    public Stream<QueryResult> stream(UserHandle userHandle) {
+        return stream(userHandle, Long.MAX_VALUE);
+    }
 
-            List<String> processedQueries = new ArrayList<>();
-            for (String queryTemplate : selectedQueries) {
-                String processedQuery = templateProcessor.processTemplate(queryTemplate, timeRange, appliedFilter);
-                processedQueries.add(processedQuery);
-            }
+    public Stream<QueryResult> stream(UserHandle userHandle, long count) {
+        return stream(UserMix.of(toPlan(userHandle)), count);
+    }
 
-            return new QueryResult(
-                    processedQueries,
-                    config.getUserType().toString(),
-                    userName,
-                    timePeriodName,
-                    appliedFilter,
-                    timeRange.getLeftBorder(),
-                    timeRange.getRightBorder()
-            );
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to process static user: " + config.getUserName(), e);
+    public Stream<QueryResult> stream(UserMix userMix) {
+        return stream(userMix, Long.MAX_VALUE);
+    }
+
+    public Stream<QueryResult> stream(UserMix userMix, long count) {
+        if (userMix == null) {
+            throw new IllegalArgumentException("UserMix cannot be null");
+        }
+        if (count < 0) {
+            throw new IllegalArgumentException("Stream size cannot be negative: " + count);
         }
+        return StreamSupport.stream(new ResultSpliterator(userMix, randomProvider.nextStreamId(), 0, count), false);
     }
 
-    private List<String> selectQueriesFromStaticConfig(StaticUserConfig config) {
-        return querySelector.selectQueriesFromRandomQueryConfig(config.getQueriesAsConfigs());
+    /**
+     * Generates {@code iterationsPerUser} iterations for each of {@code virtualUsers} virtual users into one columnar
+     * batch, splitting the population across the common fork-join pool. Every virtual user is assigned a user from
+     * the mix once; records are ordered by virtual user. Iterations where a random user selected no queries are left
+     * out, so the batch may hold fewer records than requested.
+     */
+    public QueryBatch generateBatch(UserMix userMix, int virtualUsers, int iterationsPerUser) {
+        return generateBatch(userMix, virtualUsers, iterationsPerUser, ForkJoinPool.commonPool());
     }
 
-    private QueryResult processRandomUser(RandomUserConfig config) {
-        try {
-            RandomQuerySelector.QuerySelectionResult selectionResult = querySelector.selectQueriesWithPageName(config, appConfig.getDynamicQueryTemplates());
-            List<String> selectedTemplates = selectionResult.getQueries();
-            String selectedPageName = selectionResult.getPageName();
-            String userName = config.getUserName();
+    public QueryBatch generateBatch(UserMix userMix, int virtualUsers, int iterationsPerUser, ForkJoinPool pool) {
+        checkBatch(userMix, virtualUsers, iterationsPerUser);
+        if (pool == null) {
+            throw new IllegalArgumentException("ForkJoinPool cannot be null");
+        }
 
-            if (selectedPageName != null) {
-                userName = userName + " " + selectedPageName;
-            }
+        long streamId = randomProvider.nextStreamId();
+        int usersPerTask = usersPerTask(iterationsPerUser);
+        int taskCount = (virtualUsers + usersPerTask - 1) / usersPerTask;
+        if (taskCount <= 1) {
+            return generatePart(userMix, streamId, 0, virtualUsers, iterationsPerUser);
+        }
 
-            if (selectedTemplates.isEmpty()) {
-                System.err.println("Warning: No queries selected for random user: " + config.getUserName());
-                return null;
+        QueryBatch[] parts = new QueryBatch[taskCount];
+        pool.invoke(new BatchTask(userMix, streamId, virtualUsers, iterationsPerUser, usersPerTask, parts,
+                0, taskCount));
+        return merge(parts, virtualUsers * iterationsPerUser);
+    }
+
+    /**
+     * Generates one iteration on {@link QueryExecutors#defaultExecutor()}: the common fork-join pool, or a virtual
+     * thread on Java 21+. The future completes with {@code null} when a random user selected no queries.
+     */
+    public CompletableFuture<QueryResult> generateQueriesAsync(String userName) {
+        return generateQueriesAsync(getUserHandle(userName), QueryExecutors.defaultExecutor());
+    }
+
+    public CompletableFuture<QueryResult> generateQueriesAsync(String userName, Executor executor) {
+        return generateQueriesAsync(getUserHandle(userName), executor);
+    }
+
+    public CompletableFuture<QueryResult> generateQueriesAsync(UserHandle userHandle) {
+        return generateQueriesAsync(userHandle, QueryExecutors.defaultExecutor());
+    }
+
+    /**
+     * Runs one iteration on {@code executor}. The task draws from its own random stream and a pooled buffer rather
+     * than the executing thread's state. With a seeded provider the iteration number is taken at submission, so
+     * results follow submission order whichever thread runs them.
+     */
+    public CompletableFuture<QueryResult> generateQueriesAsync(UserHandle userHandle, Executor executor) {
+        UserPlan plan = toPlan(userHandle);
+        checkExecutor(executor);
+        long streamId = asyncStreamId();
+        long iteration = asyncIterations.getAndIncrement();
+        return CompletableFuture.supplyAsync(() -> generateDetached(plan, streamId, iteration), executor);
+    }
+
+    public CompletableFuture<QueryBatch> generateBatchAsync(UserMix userMix, int virtualUsers, int iterationsPerUser) {
+        return generateBatchAsync(userMix, virtualUsers, iterationsPerUser, QueryExecutors.defaultExecutor());
+    }
+
+    /**
+     * Asynchronous {@link #generateBatch(UserMix, int, int)}: the population is split into the same parts, each
+     * submitted to {@code executor} as its own task, and merged once all parts are done. Any executor works; the
+     * result is the same as the synchronous batch for the same seed.
+     */
+    public CompletableFuture<QueryBatch> generateBatchAsync(UserMix userMix, int virtualUsers, int iterationsPerUser,
+                                                           Executor executor) {
+        checkBatch(userMix, virtualUsers, iterationsPerUser);
+        checkExecutor(executor);
+
+        long streamId = randomProvider.nextStreamId();
+        int usersPerTask = usersPerTask(iterationsPerUser);
+        int taskCount = Math.max(1, (virtualUsers + usersPerTask - 1) / usersPerTask);
+
+        List<CompletableFuture<QueryBatch>> parts = new ArrayList<>(taskCount);
+        for (int task = 0; task < taskCount; task++) {
+            int fromUser = task * usersPerTask;
+            int toUser = Math.min(virtualUsers, fromUser + usersPerTask);
+            parts.add(CompletableFuture.supplyAsync(
+                    () -> generatePart(userMix, streamId, fromUser, toUser, iterationsPerUser), executor));
+        }
+        if (taskCount == 1) {
+            return parts.get(0);
+        }
+        return CompletableFuture.allOf(parts.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            QueryBatch[] batches = new QueryBatch[taskCount];
+            for (int i = 0; i < taskCount; i++) {
+                batches[i] = parts.get(i).join();
             }
+            return merge(batches, virtualUsers * iterationsPerUser);
+        });
+    }
 
-            String timePeriodName;
-            TimeRange timeRange;
+    private QueryResult generateDetached(UserPlan plan, long streamId, long iteration) {
+        SplitMix64Random random = new SplitMix64Random(randomProvider.streamSeed(plan.getId(), streamId, iteration));
+        QueryResultBuffer buffer = acquireBuffer();
+        try {
+            return fill(plan, random, buffer) ? buffer.toQueryResult() : null;
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    private long asyncStreamId() {
+        long streamId = asyncStreamId.get();
+        if (streamId < 0) {
+            asyncStreamId.compareAndSet(-1, randomProvider.nextStreamId());
+            streamId = asyncStreamId.get();
+        }
+        return streamId;
+    }
+
+    private QueryBatch merge(QueryBatch[] parts, int capacity) {
+        QueryBatchWriter writer = new QueryBatchWriter(capacity);
+        for (QueryBatch part : parts) {
+            writer.append(part);
+        }
+        return writer.build();
+    }
 
-            List<TimePeriod> availablePeriods = config.getTimes();
-            if (availablePeriods != null && !availablePeriods.isEmpty()) {
-                TimePeriod selectedPeriod = availablePeriods.get(random.nextInt(availablePeriods.size()));
+    private int usersPerTask(int iterationsPerUser) {
+        return Math.max(1, BATCH_TASK_ITERATIONS / Math.max(1, iterationsPerUser));
+    }
 
-                long currentTime = System.currentTimeMillis() / 1000;
+    private QueryBatch generatePart(UserMix userMix, long streamId, int fromUser, int toUser, int iterationsPerUser) {
+        QueryBatchWriter writer = new QueryBatchWriter((toUser - fromUser) * iterationsPerUser);
+        QueryResultBuffer buffer = new QueryResultBuffer();
+        SplitMix64Random random = new SplitMix64Random(randomProvider.streamSeed(-1, streamId, fromUser));
+        boolean seeded = randomProvider.isSeeded();
+        long currentTime = timeRangeCalculator.currentTimeSeconds();
 
-                timeRange = timeRangeCalculator.calculateTimeRange(selectedPeriod, config, currentTime);
-                if (selectedPeriod.equals(TimePeriod.CUSTOM)) {
-                    timePeriodName = "Custom";
-                } else {
-                    timePeriodName = String.format("Last %s", formatTimeInterval(currentTime - timeRange.getLeftBorder()));
+        for (int virtualUser = fromUser; virtualUser < toUser; virtualUser++) {
+            if (seeded) {
+                random.reseed(randomProvider.streamSeed(-1, streamId, virtualUser));
+            }
+            UserPlan plan = toPlan(userMix.select(random));
+            for (int iteration = 0; iteration < iterationsPerUser; iteration++) {
+                if (seeded) {
+                    random.reseed(randomProvider.streamSeed(plan.getId(), streamId,
+                            (long) virtualUser * iterationsPerUser + iteration));
                 }
-            } else if (config.hasFixedTimeBorders()) {
-                timeRange = timeRangeCalculator.calculateTimeRange(config, System.currentTimeMillis() / 1000);
-
-                long timeRightBorderSeconds = config.getTimeRightBorder() != null ? config.getTimeRightBorder() : 0;
-                long timeLeftBorderSeconds = config.getTimeLeftBorder() != null ? config.getTimeLeftBorder() : 3600;
-
-                if (timeRightBorderSeconds > 0) {
-                    String leftBorder = formatTimeInterval(timeLeftBorderSeconds);
-                    String rightBorder = formatTimeInterval(timeRightBorderSeconds);
-                    timePeriodName = String.format("From now %s - Last %s", rightBorder, leftBorder);
-                } else {
-                    timePeriodName = String.format("Last %s", formatTimeInterval(timeLeftBorderSeconds));
+                if (fill(plan, random, currentTime, buffer)) {
+                    writer.append(virtualUser, buffer);
                 }
-            } else {
-                throw new IllegalStateException("No time configuration available for user: " + config.getUserName());
             }
+        }
+        return writer.build();
+    }
 
-            String appliedFilter = null;
-            if (filterApplier.shouldApplyFilter(config)) {
-                appliedFilter = filterApplier.selectFilter(config, appConfig.getAllFilters());
-            }
+    public QueryClock getClock() {
+        return timeRangeCalculator.getClock();
+    }
+
+    public RandomProvider getRandomProvider() {
+        return randomProvider;
+    }
+
+    private PreparedQueries prepare(UserPlan plan, QueryRandom random) {
+        QueryResultBuffer buffer = acquireBuffer();
+        try {
+            return fill(plan, random, buffer) ? buffer.toPreparedQueries() : null;
+        } finally {
+            releaseBuffer(buffer);
+        }
+    }
+
+    /**
+     * Buffers for the calls that copy their result out are shared through a small lock-free pool rather than kept per
+     * thread, so short-lived (e.g. virtual) threads reuse them too.
+     */
+    private QueryResultBuffer acquireBuffer() {
+        QueryResultBuffer buffer = spareBuffers.poll();
+        return buffer != null ? buffer : new QueryResultBuffer();
+    }
+
+    private void releaseBuffer(QueryResultBuffer buffer) {
+        buffer.clear();
+        spareBuffers.offer(buffer);
+    }
+
+    private boolean fill(UserPlan plan, QueryRandom random, QueryResultBuffer buffer) {
+        return fill(plan, random, timeRangeCalculator.currentTimeSeconds(), buffer);
+    }
+
+    private boolean fill(UserPlan plan, QueryRandom random, long currentTime, QueryResultBuffer buffer) {
+        try {
+            return processUser(plan, random, currentTime, buffer);
+        } catch (Exception e) {
+            throw new RuntimeException("Failed to generate BQL queries for user: " + plan.getUserName(), e);
+        }
+    }
+
+    public UserHandle getUserHandle(String userName) {
+        if (userName == null || userName.trim().isEmpty()) {
+            throw new IllegalArgumentException("User name cannot be null or empty");
+        }
+
+        UserPlan plan = appConfig.getUserPlan(userName);
+        if (plan == null) {
+            throw new IllegalArgumentException("User config not found: " + userName);
+        }
+        return plan;
+    }
+
+    private QueryResultBuffer checkBuffer(QueryResultBuffer buffer) {
+        if (buffer == null) {
+            throw new IllegalArgumentException("QueryResultBuffer cannot be null");
+        }
+        return buffer;
+    }
+
+    private void checkBatch(UserMix userMix, int virtualUsers, int iterationsPerUser) {
+        if (userMix == null) {
+            throw new IllegalArgumentException("UserMix cannot be null");
+        }
+        if (virtualUsers < 0 || iterationsPerUser < 0) {
+            throw new IllegalArgumentException("Virtual users and iterations cannot be negative");
+        }
+        if ((long) virtualUsers * iterationsPerUser > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Batch too large: " + virtualUsers + " x " + iterationsPerUser);
+        }
+    }
+
+    private void checkExecutor(Executor executor) {
+        if (executor == null) {
+            throw new IllegalArgumentException("Executor cannot be null");
+        }
+    }
+
+    private int checkCount(int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Batch size cannot be negative: " + count);
+        }
+        return count;
+    }
+
+    private void checkRange(int length, int offset, int count) {
+        if (length < 0) {
+            throw new IllegalArgumentException("Output array cannot be null");
+        }
+        checkCount(count);
+        if (offset < 0 || offset > length - count) {
+            throw new IndexOutOfBoundsException("Range [" + offset + ", " + offset + " + " + count
+                    + ") out of bounds for length " + length);
+        }
+    }
 
-            if (appliedFilter != null) {
-                userName = userName + " with filter";
+    private boolean render(boolean generated, QueryResultBuffer buffer) {
+        if (!generated) {
+            buffer.clear();
+            return false;
+        }
+        buffer.render();
+        return true;
+    }
+
+    private UserPlan toPlan(UserHandle userHandle) {
+        if (userHandle == null) {
+            throw new IllegalArgumentException("User handle cannot be null");
+        }
+        if (!(userHandle instanceof UserPlan)) {
+            throw new IllegalArgumentException("Unsupported user handle: " + userHandle.getClass().getName());
+        }
+        return (UserPlan) userHandle;
+    }
+
+    private boolean processUser(UserPlan plan, QueryRandom random, long currentTime, QueryResultBuffer buffer) {
+        try {
+            PagePlan page = querySelector.selectPage(plan, random);
+            querySelector.selectQueries(page, buffer, random, currentTime);
+
+            if (buffer.isEmpty() && plan.getUserType() == UserType.RANDOM) {
+                System.err.println("Warning: No queries selected for random user: " + plan.getUserName());
+                return false;
             }
+            validateTemplates(buffer);
+
+            String timePeriodName;
+            long[] borders = buffer.borders();
 
-            List<String> processedQueries = new ArrayList<>();
-            for (String queryTemplate : selectedTemplates) {
-                String processedQuery = templateProcessor.processTemplate(queryTemplate, timeRange, appliedFilter);
-                processedQueries.add(processedQuery);
+            TimeStrategy timeStrategy = plan.getTimeStrategy();
+            if (timeStrategy.hasPeriods()) {
+                TimePeriod selectedPeriod = timeStrategy.getPeriod(random.nextInt(timeStrategy.getPeriodCount()));
+                timeRangeCalculator.calculateBorders(selectedPeriod, timeStrategy, currentTime, random, borders);
+                timePeriodName = TimeLabels.period(selectedPeriod);
+            } else {
+                timeRangeCalculator.calculateBorders(timeStrategy, currentTime, borders);
+                timePeriodName = timeStrategy.getFixedLabel();
+            }
+            if (borders[0] > borders[1]) {
+                throw new IllegalArgumentException("Left border cannot be greater than right border");
             }
 
-            return new QueryResult(
-                    processedQueries,
-                    config.getUserType().toString(),
-                    userName,
-                    timePeriodName,
-                    appliedFilter,
-                    timeRange.getLeftBorder(),
-                    timeRange.getRightBorder()
-            );
+            boolean filtered = filterApplier.applyFilter(plan.getFilterPool(), random, buffer, currentTime);
+
+            buffer.setSource(plan, page);
+            buffer.setLabels(plan.getUserTypeName(), page.getLabel(filtered), timePeriodName);
+            return true;
         } catch (Exception e) {
-            throw new RuntimeException("Failed to process random user: " + config.getUserName(), e);
+            throw new RuntimeException("Failed to process " + plan.getUserType().name().toLowerCase()
+                    + " user: " + plan.getUserName(), e);
         }
     }
 
-    private String formatTimeInterval(long seconds) {
-        if (seconds == 0) {
-            return "0S";
+    private final class BatchTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final UserMix userMix;
+        private final long streamId;
+        private final int virtualUsers;
+        private final int iterationsPerUser;
+        private final int usersPerTask;
+        private final QueryBatch[] parts;
+        private final int fromTask;
+        private final int toTask;
+
+        private BatchTask(UserMix userMix, long streamId, int virtualUsers, int iterationsPerUser, int usersPerTask,
+                          QueryBatch[] parts, int fromTask, int toTask) {
+            this.userMix = userMix;
+            this.streamId = streamId;
+            this.virtualUsers = virtualUsers;
+            this.iterationsPerUser = iterationsPerUser;
+            this.usersPerTask = usersPerTask;
+            this.parts = parts;
+            this.fromTask = fromTask;
+            this.toTask = toTask;
         }
 
-        long hours = seconds / 3600;
-        long remainingSeconds = seconds % 3600;
-        long minutes = remainingSeconds / 60;
-        long finalSeconds = remainingSeconds % 60;
+        @Override
+        protected void compute() {
+            if (toTask - fromTask == 1) {
+                int fromUser = fromTask * usersPerTask;
+                int toUser = Math.min(virtualUsers, fromUser + usersPerTask);
+                parts[fromTask] = generatePart(userMix, streamId, fromUser, toUser, iterationsPerUser);
+                return;
+            }
+            int mid = (fromTask + toTask) >>> 1;
+            invokeAll(new BatchTask(userMix, streamId, virtualUsers, iterationsPerUser, usersPerTask, parts,
+                            fromTask, mid),
+                    new BatchTask(userMix, streamId, virtualUsers, iterationsPerUser, usersPerTask, parts,
+                            mid, toTask));
+        }
+    }
+
+    private final class ResultSpliterator implements Spliterator<QueryResult> {
+        private static final int MAX_EMPTY_ITERATIONS = 10_000;
+
+        private final UserMix userMix;
+        private final long streamId;
+        private final SplitMix64Random random;
+        private final QueryResultBuffer buffer = new QueryResultBuffer();
+        private long index;
+        private final long fence;
+
+        private ResultSpliterator(UserMix userMix, long streamId, long index, long fence) {
+            this(userMix, streamId, index, fence,
+                    new SplitMix64Random(randomProvider.streamSeed(-1, streamId, index)));
+        }
 
-        StringBuilder result = new StringBuilder();
+        private ResultSpliterator(UserMix userMix, long streamId, long index, long fence, SplitMix64Random random) {
+            this.userMix = userMix;
+            this.streamId = streamId;
+            this.index = index;
+            this.fence = fence;
+            this.random = random;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super QueryResult> action) {
+            for (int empty = 0; index < fence; empty++) {
+                if (randomProvider.isSeeded()) {
+                    random.reseed(randomProvider.streamSeed(-1, streamId, index));
+                }
+                index++;
+
+                UserPlan plan = toPlan(userMix.select(random));
+                if (fill(plan, random, buffer)) {
+                    action.accept(buffer.toQueryResult());
+                    return true;
+                }
+                if (empty >= MAX_EMPTY_ITERATIONS) {
+                    throw new IllegalStateException("No queries selected in " + MAX_EMPTY_ITERATIONS
+                            + " consecutive iterations for user: " + plan.getUserName());
+                }
+            }
+            return false;
+        }
 
-        if (hours > 0) {
-            result.append(hours).append("h");
+        @Override
+        public Spliterator<QueryResult> trySplit() {
+            long remaining = fence - index;
+            if (remaining < 2) {
+                return null;
+            }
+            long mid = index + remaining / 2;
+            ResultSpliterator prefix = new ResultSpliterator(userMix, streamId, index, mid, random.split());
+            index = mid;
+            return prefix;
         }
-        if (minutes > 0) {
-            result.append(minutes).append("m");
+
+        @Override
+        public long estimateSize() {
+            return fence - index;
         }
-        if (finalSeconds > 0) {
-            result.append(finalSeconds).append("s");
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
         }
+    }
 
-        return result.toString();
+    private void validateTemplates(QueryResultBuffer buffer) {
+        for (int i = 0; i < buffer.size(); i++) {
+            if (buffer.getTemplate(i).isBlank()) {
+                throw new IllegalArgumentException("Template cannot be null or empty");
+            }
+        }
     }
 }
@@ -0,0 +1,199 @@
+package com.human.cli;
+
+import com.human.QueryGenerator;
+import com.human.enums.OutputFormat;
+import com.human.service.BinaryCorpusWriter;
+import com.human.service.QueryResultBuffer;
+import com.human.service.UserHandle;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes generated iterations to a file from several worker threads. Each worker encodes records into its own direct
+ * buffer and, when it is full, reserves a file range with an atomic add and writes it with a positional
+ * {@link FileChannel#write(ByteBuffer, long)}, so workers never share a lock. Records stay whole, but their order in
+ * the file depends on scheduling. Iteration {@code i} goes to user {@code i % users.size()}; with a seeded generator
+ * on a fixed clock it is reproducible because it is generated at (stream 0, iteration {@code i}). The binary format
+ * needs a single string dictionary, so it is written by one thread through {@link BinaryCorpusWriter}.
+ */
+public final class CorpusWriter {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    private static final int CLAIM_SIZE = 1024;
+
+    private final QueryGenerator generator;
+    private final UserHandle[] users;
+    private final OutputFormat format;
+    private final RecordEncoder encoder;
+    private final int threads;
+    private final int bufferSize;
+
+    public CorpusWriter(QueryGenerator generator, List<? extends UserHandle> users, OutputFormat format, int threads,
+                        int bufferSize) {
+        if (generator == null) {
+            throw new IllegalArgumentException("QueryGenerator cannot be null");
+        }
+        if (users == null || users.isEmpty()) {
+            throw new IllegalArgumentException("At least one user is required");
+        }
+        if (format == null) {
+            throw new IllegalArgumentException("Output format cannot be null");
+        }
+        if (threads <= 0) {
+            throw new IllegalArgumentException("Thread count must be positive: " + threads);
+        }
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.generator = generator;
+        this.users = users.toArray(new UserHandle[0]);
+        this.format = format;
+        this.encoder = new RecordEncoder(format);
+        this.threads = threads;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Writes {@code iterations} iterations and returns the number of records written.
+     */
+    public long write(Path output, long iterations) throws IOException {
+        if (iterations < 0) {
+            throw new IllegalArgumentException("Iterations cannot be negative: " + iterations);
+        }
+        return write(output, iterations, false, 0);
+    }
+
+    /**
+     * Writes iterations until {@code durationMillis} have passed and returns the number of records written.
+     */
+    public long writeFor(Path output, long durationMillis) throws IOException {
+        if (durationMillis <= 0) {
+            throw new IllegalArgumentException("Duration must be positive: " + durationMillis);
+        }
+        return write(output, Long.MAX_VALUE, true, System.nanoTime() + durationMillis * 1_000_000L);
+    }
+
+    private long write(Path output, long iterations, boolean timed, long deadlineNanos) throws IOException {
+        if (format == OutputFormat.BINARY) {
+            return writeBinary(output, iterations, timed, deadlineNanos);
+        }
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.wrap(encoder.header());
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+
+            Job job = new Job(channel, iterations, timed, deadlineNanos, header.limit());
+            List<Thread> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                Thread worker = new Thread(() -> runWorker(job), "querycraft-writer-" + i);
+                workers.add(worker);
+                worker.start();
+            }
+            for (Thread worker : workers) {
+                try {
+                    worker.join();
+                } catch (InterruptedException e) {
+                    job.failure.compareAndSet(null, e);
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            Throwable failure = job.failure.get();
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            }
+            if (failure != null) {
+                throw new IOException("Failed to write corpus to " + output, failure);
+            }
+            return job.records.get();
+        }
+    }
+
+    private long writeBinary(Path output, long iterations, boolean timed, long deadlineNanos) throws IOException {
+        try (BinaryCorpusWriter writer = new BinaryCorpusWriter(output)) {
+            QueryResultBuffer buffer = new QueryResultBuffer();
+            for (long iteration = 0; iteration < iterations; iteration++) {
+                if (timed && iteration % CLAIM_SIZE == 0 && System.nanoTime() - deadlineNanos >= 0) {
+                    break;
+                }
+                if (generator.generateInto(users[(int) (iteration % users.length)], 0, iteration, buffer)) {
+                    writer.append(buffer);
+                }
+            }
+            return writer.size();
+        }
+    }
+
+    private void runWorker(Job job) {
+        ByteBuffer out = ByteBuffer.allocateDirect(bufferSize);
+        QueryResultBuffer buffer = new QueryResultBuffer();
+        long records = 0;
+        try {
+            while (job.failure.get() == null) {
+                long start = job.nextIteration.getAndAdd(CLAIM_SIZE);
+                if (start >= job.iterations || job.timed && System.nanoTime() - job.deadlineNanos >= 0) {
+                    break;
+                }
+                long end = Math.min(job.iterations, start + CLAIM_SIZE);
+                for (long iteration = start; iteration < end; iteration++) {
+                    UserHandle user = users[(int) (iteration % users.length)];
+                    if (!generator.generateInto(user, 0, iteration, buffer)) {
+                        continue;
+                    }
+                    int required = encoder.maxEncodedLength(buffer);
+                    if (out.remaining() < required) {
+                        flush(job, out);
+                        if (out.capacity() < required) {
+                            out = ByteBuffer.allocateDirect(required);
+                        }
+                    }
+                    encoder.encode(buffer, out);
+                    records++;
+                }
+            }
+            flush(job, out);
+        } catch (Throwable e) {
+            job.failure.compareAndSet(null, e);
+        } finally {
+            job.records.addAndGet(records);
+        }
+    }
+
+    private static void flush(Job job, ByteBuffer out) throws IOException {
+        out.flip();
+        long position = job.position.getAndAdd(out.remaining());
+        while (out.hasRemaining()) {
+            position += job.channel.write(out, position);
+        }
+        out.clear();
+    }
+
+    private static final class Job {
+        private final FileChannel channel;
+        private final long iterations;
+        private final boolean timed;
+        private final long deadlineNanos;
+        private final AtomicLong position;
+        private final AtomicLong nextIteration = new AtomicLong();
+        private final AtomicLong records = new AtomicLong();
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        private Job(FileChannel channel, long iterations, boolean timed, long deadlineNanos, long headerLength) {
+            this.channel = channel;
+            this.iterations = iterations;
+            this.timed = timed;
+            this.deadlineNanos = deadlineNanos;
+            this.position = new AtomicLong(headerLength);
+        }
+    }
+}
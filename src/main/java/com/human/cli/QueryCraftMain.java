@@ -0,0 +1,205 @@
+package com.human.cli;
+
+import com.human.QueryGenerator;
+import com.human.config.AppConfig;
+import com.human.config.ConfigLoader;
+import com.human.enums.OutputFormat;
+import com.human.service.QueryClock;
+import com.human.service.RandomProvider;
+import com.human.service.UserHandle;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Command line entry point: loads a configuration and writes a workload corpus as NDJSON, CSV or binary.
+ */
+public final class QueryCraftMain {
+
+    private static final String USAGE = String.join(System.lineSeparator(),
+            "Usage: java -jar query-craft-jar-with-dependencies.jar --config <config.yaml|dir> --output <file>",
+            "         (--iterations <n> | --duration <seconds|30s|5m|1h>) [options]",
+            "",
+            "Options:",
+            "  --format <format>        ndjson, csv or binary (default: from the extension .csv/.qcb, else ndjson)",
+            "  --threads <n>            worker threads for text formats (default: available processors)",
+            "  --users <a,b,...>        users to generate for, in round-robin order (default: all users)",
+            "  --seed <n>               seed for a reproducible corpus; fixes the clock at --start-time",
+            "  --start-time <seconds>   generate as if the time were this epoch second (with --seed default:",
+            "                           start of the current UTC day)",
+            "  --buffer-size <bytes>    per-thread write buffer (default: " + CorpusWriter.DEFAULT_BUFFER_SIZE + ")",
+            "  --help                   print this message");
+
+    private static final long SECONDS_PER_DAY = 86_400;
+
+    private QueryCraftMain() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println("Error: " + e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (Exception e) {
+            System.err.println("Error: " + e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
+    }
+
+    static int run(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        if (options.containsKey("help")) {
+            System.out.println(USAGE);
+            return 0;
+        }
+
+        Path config = Paths.get(required(options, "config"));
+        Path output = Paths.get(required(options, "output"));
+        OutputFormat format = options.containsKey("format")
+                ? OutputFormat.fromName(options.get("format"))
+                : formatFromExtension(output.toString().toLowerCase());
+        int threads = options.containsKey("threads")
+                ? parseInt(options, "threads") : Runtime.getRuntime().availableProcessors();
+        int bufferSize = options.containsKey("buffer-size")
+                ? parseInt(options, "buffer-size") : CorpusWriter.DEFAULT_BUFFER_SIZE;
+        if (options.containsKey("iterations") == options.containsKey("duration")) {
+            throw new IllegalArgumentException("Exactly one of --iterations or --duration is required");
+        }
+
+        AppConfig appConfig = loader(config).loadParallel();
+        RandomProvider randomProvider = options.containsKey("seed")
+                ? RandomProvider.seeded(parseLong(options, "seed")) : RandomProvider.unseeded();
+        QueryGenerator generator = new QueryGenerator(appConfig, randomProvider, clock(options));
+
+        List<UserHandle> users = new ArrayList<>();
+        if (options.containsKey("users")) {
+            for (String userName : options.get("users").split(",")) {
+                users.add(generator.getUserHandle(userName.trim()));
+            }
+        } else {
+            users.addAll(appConfig.getUserPlans().values());
+        }
+
+        CorpusWriter writer = new CorpusWriter(generator, users, format, threads, bufferSize);
+        long started = System.nanoTime();
+        long records = options.containsKey("iterations")
+                ? writer.write(output, parseLong(options, "iterations"))
+                : writer.writeFor(output, parseDurationMillis(options.get("duration")));
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+
+        long bytes = Files.size(output);
+        System.err.println("Wrote " + records + " records (" + bytes + " bytes) to " + output + " in "
+                + elapsedMillis + " ms, " + (records * 1000 / elapsedMillis) + " records/s");
+        return 0;
+    }
+
+    /**
+     * Time borders depend on the clock, so a seeded corpus is only reproducible with a fixed one. Without an explicit
+     * start time a seeded run uses the start of the current UTC day and prints it, so the run can be repeated later.
+     */
+    private static QueryClock clock(Map<String, String> options) {
+        if (options.containsKey("start-time")) {
+            return QueryClock.fixed(parseLong(options, "start-time"));
+        }
+        if (options.containsKey("seed")) {
+            long startTime = Math.floorDiv(System.currentTimeMillis() / 1000, SECONDS_PER_DAY) * SECONDS_PER_DAY;
+            System.err.println("Using --start-time " + startTime);
+            return QueryClock.fixed(startTime);
+        }
+        return QueryClock.cached();
+    }
+
+    private static OutputFormat formatFromExtension(String fileName) {
+        if (fileName.endsWith(".csv")) {
+            return OutputFormat.CSV;
+        }
+        if (fileName.endsWith(".qcb") || fileName.endsWith(".bin")) {
+            return OutputFormat.BINARY;
+        }
+        return OutputFormat.NDJSON;
+    }
+
+    private static ConfigLoader loader(Path config) {
+        if (Files.isDirectory(config)) {
+            return new ConfigLoader(config);
+        }
+        Path absolute = config.toAbsolutePath();
+        return new ConfigLoader(absolute.getParent(), absolute.getFileName().toString());
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            String name = arg.substring(2);
+            int eq = name.indexOf('=');
+            if (eq >= 0) {
+                options.put(name.substring(0, eq), name.substring(eq + 1));
+            } else if (name.equals("help")) {
+                options.put(name, "");
+            } else if (i + 1 < args.length) {
+                options.put(name, args[++i]);
+            } else {
+                throw new IllegalArgumentException("Missing value for --" + name);
+            }
+        }
+        return options;
+    }
+
+    private static String required(Map<String, String> options, String name) {
+        String value = options.get(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("--" + name + " is required");
+        }
+        return value;
+    }
+
+    private static int parseInt(Map<String, String> options, String name) {
+        long value = parseLong(options, name);
+        if (value > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("--" + name + " is too large: " + value);
+        }
+        return (int) value;
+    }
+
+    private static long parseLong(Map<String, String> options, String name) {
+        try {
+            return Long.parseLong(options.get(name).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--" + name + " must be a number: " + options.get(name));
+        }
+    }
+
+    static long parseDurationMillis(String value) {
+        String trimmed = value.trim().toLowerCase();
+        long unit = 1000;
+        if (trimmed.endsWith("ms")) {
+            unit = 1;
+            trimmed = trimmed.substring(0, trimmed.length() - 2);
+        } else if (trimmed.endsWith("s")) {
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        } else if (trimmed.endsWith("m")) {
+            unit = 60_000;
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        } else if (trimmed.endsWith("h")) {
+            unit = 3_600_000;
+            trimmed = trimmed.substring(0, trimmed.length() - 1);
+        }
+        try {
+            return Long.parseLong(trimmed.trim()) * unit;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid duration: " + value);
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.human.cli;
+
+import com.human.enums.OutputFormat;
+import com.human.service.QueryResultBuffer;
+import com.human.service.Utf8;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encodes one generated iteration as UTF-8 straight into a byte buffer: a single NDJSON line, or one CSV row per query.
+ */
+final class RecordEncoder {
+
+    static final byte[] CSV_HEADER = ascii("user,user_type,label,time_period,filter,time_left_border,"
+            + "time_right_border,query_index,query\n");
+
+    private static final int MAX_BYTES_PER_CHAR = 6;
+    private static final int RECORD_OVERHEAD = 256;
+
+    private static final byte[] USER = ascii("{\"user\":");
+    private static final byte[] USER_TYPE = ascii(",\"user_type\":");
+    private static final byte[] LABEL = ascii(",\"label\":");
+    private static final byte[] TIME_PERIOD = ascii(",\"time_period\":");
+    private static final byte[] FILTER = ascii(",\"filter\":");
+    private static final byte[] TIME_LEFT_BORDER = ascii(",\"time_left_border\":");
+    private static final byte[] TIME_RIGHT_BORDER = ascii(",\"time_right_border\":");
+    private static final byte[] QUERIES = ascii(",\"queries\":[");
+    private static final byte[] RECORD_END = ascii("]}\n");
+    private static final byte[] NULL = ascii("null");
+    private static final byte[] HEX = ascii("0123456789abcdef");
+
+    private final OutputFormat format;
+
+    RecordEncoder(OutputFormat format) {
+        this.format = format;
+    }
+
+    byte[] header() {
+        return format == OutputFormat.CSV ? CSV_HEADER : new byte[0];
+    }
+
+    /**
+     * Upper bound of the bytes {@link #encode} writes for the iteration, assuming every char needs escaping.
+     */
+    int maxEncodedLength(QueryResultBuffer buffer) {
+        long fields = length(buffer.getUser().getUserName()) + length(buffer.getUserType())
+                + length(buffer.getUserName()) + length(buffer.getTimePeriodName()) + length(buffer.getAppliedFilter());
+        long bytes;
+        if (format == OutputFormat.CSV) {
+            bytes = 0;
+            for (int i = 0; i < buffer.size(); i++) {
+                bytes += (fields + buffer.getQuery(i).length()) * MAX_BYTES_PER_CHAR + RECORD_OVERHEAD;
+            }
+        } else {
+            bytes = fields * MAX_BYTES_PER_CHAR + RECORD_OVERHEAD;
+            for (int i = 0; i < buffer.size(); i++) {
+                bytes += buffer.getQuery(i).length() * (long) MAX_BYTES_PER_CHAR + 3;
+            }
+        }
+        if (bytes > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Record too large to encode: " + bytes + " bytes");
+        }
+        return (int) bytes;
+    }
+
+    void encode(QueryResultBuffer buffer, ByteBuffer out) {
+        if (format == OutputFormat.CSV) {
+            encodeCsv(buffer, out);
+        } else {
+            encodeJson(buffer, out);
+        }
+    }
+
+    private static void encodeJson(QueryResultBuffer buffer, ByteBuffer out) {
+        out.put(USER);
+        putJsonString(out, buffer.getUser().getUserName());
+        out.put(USER_TYPE);
+        putJsonString(out, buffer.getUserType());
+        out.put(LABEL);
+        putJsonString(out, buffer.getUserName());
+        out.put(TIME_PERIOD);
+        putJsonString(out, buffer.getTimePeriodName());
+        out.put(FILTER);
+        putJsonString(out, buffer.getAppliedFilter());
+        out.put(TIME_LEFT_BORDER);
+        Utf8.putLong(out, buffer.getTimeLeftBorder());
+        out.put(TIME_RIGHT_BORDER);
+        Utf8.putLong(out, buffer.getTimeRightBorder());
+        out.put(QUERIES);
+        for (int i = 0; i < buffer.size(); i++) {
+            if (i > 0) {
+                out.put((byte) ',');
+            }
+            putJsonString(out, buffer.getQuery(i));
+        }
+        out.put(RECORD_END);
+    }
+
+    private static void encodeCsv(QueryResultBuffer buffer, ByteBuffer out) {
+        for (int i = 0; i < buffer.size(); i++) {
+            putCsvField(out, buffer.getUser().getUserName());
+            out.put((byte) ',');
+            putCsvField(out, buffer.getUserType());
+            out.put((byte) ',');
+            putCsvField(out, buffer.getUserName());
+            out.put((byte) ',');
+            putCsvField(out, buffer.getTimePeriodName());
+            out.put((byte) ',');
+            putCsvField(out, buffer.getAppliedFilter());
+            out.put((byte) ',');
+            Utf8.putLong(out, buffer.getTimeLeftBorder());
+            out.put((byte) ',');
+            Utf8.putLong(out, buffer.getTimeRightBorder());
+            out.put((byte) ',');
+            Utf8.putLong(out, i);
+            out.put((byte) ',');
+            putCsvField(out, buffer.getQuery(i));
+            out.put((byte) '\n');
+        }
+    }
+
+    private static void putJsonString(ByteBuffer out, CharSequence value) {
+        if (value == null) {
+            out.put(NULL);
+            return;
+        }
+
+        out.put((byte) '"');
+        int runStart = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '"' && c != '\\' && c >= 0x20) {
+                continue;
+            }
+            Utf8.encode(value, runStart, i, out);
+            out.put((byte) '\\');
+            switch (c) {
+                case '"':
+                case '\\':
+                    out.put((byte) c);
+                    break;
+                case '\n':
+                    out.put((byte) 'n');
+                    break;
+                case '\r':
+                    out.put((byte) 'r');
+                    break;
+                case '\t':
+                    out.put((byte) 't');
+                    break;
+                default:
+                    out.put((byte) 'u').put((byte) '0').put((byte) '0');
+                    out.put(HEX[c >> 4]).put(HEX[c & 0xF]);
+            }
+            runStart = i + 1;
+        }
+        Utf8.encode(value, runStart, value.length(), out);
+        out.put((byte) '"');
+    }
+
+    private static void putCsvField(ByteBuffer out, CharSequence value) {
+        if (value == null) {
+            return;
+        }
+        if (!needsQuoting(value)) {
+            Utf8.encode(value, out);
+            return;
+        }
+
+        out.put((byte) '"');
+        int runStart = 0;
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) == '"') {
+                Utf8.encode(value, runStart, i + 1, out);
+                out.put((byte) '"');
+                runStart = i + 1;
+            }
+        }
+        Utf8.encode(value, runStart, value.length(), out);
+        out.put((byte) '"');
+    }
+
+    private static boolean needsQuoting(CharSequence value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long length(String value) {
+        return value != null ? value.length() : 4;
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
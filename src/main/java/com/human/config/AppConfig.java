@@ -1,5 +1,9 @@
 package com.human.config;
 
+import com.human.service.UserPlan;
+import com.human.service.UserPlanCompiler;
+
+import java.time.ZoneId;
 import java.util.List;
 import java.util.Map;
 
@@ -10,6 +14,8 @@ public class AppConfig {
     private final List<String> allFilters;
     private final String defaultFiltersKey;
     private final int baseProbabilityFilter;
+    private final Map<String, UserPlan> userPlans;
+    private final ZoneId timeZone;
 
     public AppConfig(Map<String, BaseUserConfig> userConfigs,
                      Map<String, RandomQueryConfig> dynamicQueryTemplates) {
@@ -21,11 +27,34 @@ public class AppConfig {
                      List<String> allFilters,
                      String defaultFiltersKey,
                      int baseProbabilityFilter) {
+        this(userConfigs, dynamicQueryTemplates, allFilters, defaultFiltersKey, baseProbabilityFilter,
+                new UserPlanCompiler().compile(userConfigs, dynamicQueryTemplates, allFilters, baseProbabilityFilter));
+    }
+
+    public AppConfig(Map<String, BaseUserConfig> userConfigs,
+                     Map<String, RandomQueryConfig> dynamicQueryTemplates,
+                     List<String> allFilters,
+                     String defaultFiltersKey,
+                     int baseProbabilityFilter,
+                     Map<String, UserPlan> userPlans) {
+        this(userConfigs, dynamicQueryTemplates, allFilters, defaultFiltersKey, baseProbabilityFilter, userPlans,
+                ZoneId.systemDefault());
+    }
+
+    public AppConfig(Map<String, BaseUserConfig> userConfigs,
+                     Map<String, RandomQueryConfig> dynamicQueryTemplates,
+                     List<String> allFilters,
+                     String defaultFiltersKey,
+                     int baseProbabilityFilter,
+                     Map<String, UserPlan> userPlans,
+                     ZoneId timeZone) {
         this.userConfigs = userConfigs;
         this.dynamicQueryTemplates = dynamicQueryTemplates;
         this.allFilters = allFilters;
         this.defaultFiltersKey = defaultFiltersKey;
         this.baseProbabilityFilter = baseProbabilityFilter;
+        this.userPlans = userPlans;
+        this.timeZone = timeZone != null ? timeZone : ZoneId.systemDefault();
     }
 
     public Map<String, BaseUserConfig> getUserConfigs() {
@@ -48,10 +77,22 @@ public class AppConfig {
         return baseProbabilityFilter;
     }
 
+    public ZoneId getTimeZone() {
+        return timeZone;
+    }
+
     public BaseUserConfig getUserConfig(String userName) {
         return userConfigs.get(userName);
     }
 
+    public Map<String, UserPlan> getUserPlans() {
+        return userPlans;
+    }
+
+    public UserPlan getUserPlan(String userName) {
+        return userPlans.get(userName);
+    }
+
     public boolean hasUser(String userName) {
         return userConfigs.containsKey(userName);
     }
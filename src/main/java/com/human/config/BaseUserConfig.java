@@ -3,9 +3,9 @@ package com.human.config;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.human.enums.FilterJoin;
 import com.human.enums.UserType;
 
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -36,16 +36,39 @@ public abstract class BaseUserConfig {
     @JsonProperty("using_filters")
     protected final boolean usingFilters;
 
+    @JsonProperty("filter_distribution")
+    protected final DistributionConfig filterDistribution;
+
+    @JsonProperty("filter_count")
+    protected final FilterCountConfig filterCount;
+
+    @JsonProperty("filter_join")
+    protected final FilterJoin filterJoin;
+
     protected BaseUserConfig(String userName,
                              List<String> filters,
                              String filtersFile,
                              Integer filterApplyProbability,
                              Boolean usingFilters) {
+        this(userName, filters, filtersFile, filterApplyProbability, usingFilters, null, null, null);
+    }
+
+    protected BaseUserConfig(String userName,
+                             List<String> filters,
+                             String filtersFile,
+                             Integer filterApplyProbability,
+                             Boolean usingFilters,
+                             DistributionConfig filterDistribution,
+                             FilterCountConfig filterCount,
+                             FilterJoin filterJoin) {
         this.userName = userName;
-        this.filters = (filters != null) ? Collections.unmodifiableList(new ArrayList<>(filters)) : Collections.emptyList();
+        this.filters = (filters != null) ? FrozenList.copyOf(filters) : Collections.emptyList();
         this.filtersFile = filtersFile;
         this.filterApplyProbability = filterApplyProbability;
         this.usingFilters = Optional.ofNullable(usingFilters).orElse(true);
+        this.filterDistribution = filterDistribution;
+        this.filterCount = (filterCount != null) ? filterCount : FilterCountConfig.SINGLE;
+        this.filterJoin = (filterJoin != null) ? filterJoin : FilterJoin.AND;
     }
 
     public abstract UserType getUserType();
@@ -74,6 +97,18 @@ public abstract class BaseUserConfig {
         return usingFilters;
     }
 
+    public DistributionConfig getFilterDistribution() {
+        return filterDistribution;
+    }
+
+    public FilterCountConfig getFilterCount() {
+        return filterCount;
+    }
+
+    public FilterJoin getFilterJoin() {
+        return filterJoin;
+    }
+
     public boolean hasInlineFilters() {
         return filters != null && !filters.isEmpty();
     }
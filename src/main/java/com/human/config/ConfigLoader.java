@@ -1,20 +1,44 @@
 package com.human.config;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.human.service.MappedQueryPool;
+import com.human.service.PagePlan;
+import com.human.service.UserPlan;
+import com.human.service.UserPlanCompiler;
+import org.yaml.snakeyaml.LoaderOptions;
 
+import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.DateTimeException;
+import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -22,11 +46,21 @@ public class ConfigLoader {
 
     private final String configPath;
     private final Path baseDir;
-    private final ObjectMapper mapper = new ObjectMapper(new YAMLFactory());
+    private final ObjectMapper mapper = new ObjectMapper(YAMLFactory.builder().loaderOptions(loaderOptions()).build());
     private final String DEFAULT_FILTERS_KEY = "default_filters";
     private final String BASE_PROBABILITY_FILTER_KEY = "base_probability_filter";
+    private final String TIME_ZONE_KEY = "time_zone";
+    private final String FILTER_KEY = "filter";
+    private final String WEIGHT_KEY = "weight";
+    private static final String TEXT_LIST_EXTENSION = ".txt";
+    private static final int TEXT_LIST_BUFFER_SIZE = 1 << 16;
+    private static final String CORPUS_EXTENSION = ".corpus";
+    private static final int MAX_CORPUS_SELECTION = 1000;
     public static final int DEFAULT_PROBABILITY = 66;
     private String dynamicFiltersPath;
+    private final Map<List<String>, double[]> filterWeights = new IdentityHashMap<>();
+    private final Map<FileKey, Object> parsedFiles = new ConcurrentHashMap<>();
+    private ParallelLoad parallelLoad;
 
     public ConfigLoader() {
         this.baseDir = null;
@@ -59,7 +93,41 @@ public class ConfigLoader {
     }
 
     public AppConfig load() throws IOException {
-        Map<String, Object> config = loadConfigFile();
+        return load(1);
+    }
+
+    public AppConfig loadParallel() throws IOException {
+        return loadParallel(Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Loads like {@link #load()}, but first parses every distinct referenced file (users, query and filter files,
+     * page {@code queries_file}s) concurrently on a fork-join pool of at most {@code parallelism} threads; the
+     * configuration is then assembled from the parsed files in the usual order. If required files fail, all failures
+     * are reported together in one exception, ordered by path.
+     */
+    public AppConfig loadParallel(int parallelism) throws IOException {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("Parallelism must be positive: " + parallelism);
+        }
+        return load(parallelism);
+    }
+
+    private AppConfig load(int parallelism) throws IOException {
+        filterWeights.clear();
+        parsedFiles.clear();
+        try {
+            Map<String, Object> config = loadConfigFile();
+            if (parallelism > 1) {
+                prefetch(config, parallelism);
+            }
+            return loadConfig(config);
+        } finally {
+            parsedFiles.clear();
+        }
+    }
+
+    private AppConfig loadConfig(Map<String, Object> config) throws IOException {
 
         String USERS_CONFIG_PATH_KEY = "users_config_path";
         String userConfigPath = (String) config.get(USERS_CONFIG_PATH_KEY);
@@ -82,41 +150,67 @@ public class ConfigLoader {
 
         Map<String, List<String>> legacyQueryTemplates = convertRandomQueryConfigsToMap(dynamicQueryTemplates);
 
+        Map<String, UserPlan> userPlans = new UserPlanCompiler()
+                .compile(userConfigs, dynamicQueryTemplates, allFilters, baseProbabilityFilter, filterWeights);
+
         return new AppConfig(
                 userConfigs,
                 dynamicQueryTemplates,
                 allFilters,
                 DEFAULT_FILTERS_KEY,
-                baseProbabilityFilter
+                baseProbabilityFilter,
+                userPlans,
+                parseTimeZone((String) config.get(TIME_ZONE_KEY))
         );
     }
 
-    private Map<String, Object> loadConfigFile() throws IOException {
-        try (InputStream is = Files.newInputStream(resolvePath(configPath))) {
-            return mapper.readValue(is, new TypeReference<Map<String, Object>>() {
-            });
+    /**
+     * SnakeYAML rejects documents over 3M code points by default; query and filter lists are trusted local files
+     * and may be much larger.
+     */
+    private static LoaderOptions loaderOptions() {
+        LoaderOptions options = new LoaderOptions();
+        options.setCodePointLimit(Integer.MAX_VALUE);
+        return options;
+    }
+
+    private ZoneId parseTimeZone(String timeZone) throws IOException {
+        if (timeZone == null || timeZone.trim().isEmpty()) {
+            return ZoneId.systemDefault();
+        }
+        try {
+            return ZoneId.of(timeZone.trim());
+        } catch (DateTimeException e) {
+            throw new IOException("Invalid " + TIME_ZONE_KEY + ": " + timeZone, e);
         }
     }
 
+    private Map<String, Object> loadConfigFile() throws IOException {
+        return parseOnce(FileKind.CONFIG, resolvePath(configPath), is -> mapper.readValue(is, new TypeReference<Map<String, Object>>() {
+        }));
+    }
+
+    private List<BaseUserConfig> loadUserList(String userConfigPath) throws IOException {
+        return parseOnce(FileKind.USERS, resolvePath(userConfigPath), is -> mapper.readValue(is, new TypeReference<List<BaseUserConfig>>() {
+        }));
+    }
+
     private Map<String, BaseUserConfig> loadUserConfigs(String userConfigPath, Map<String, RandomQueryConfig> dynamicQueryTemplates, int defaultFilterProbability) throws IOException {
         Map<String, Object> config = loadConfigFile();
         Integer baseProbabilityFilterObj = (Integer) config.get(BASE_PROBABILITY_FILTER_KEY);
         int baseProbabilityFilter = (baseProbabilityFilterObj != null) ? baseProbabilityFilterObj : DEFAULT_PROBABILITY;
 
-        try (InputStream is = Files.newInputStream(resolvePath(userConfigPath))) {
-            List<BaseUserConfig> userList = mapper.readValue(is, new TypeReference<List<BaseUserConfig>>() {
-            });
-
-            List<BaseUserConfig> processedUsers = new ArrayList<>();
+        List<BaseUserConfig> userList = loadUserList(userConfigPath);
 
-            for (BaseUserConfig user : userList) {
-                BaseUserConfig processedUser = processUser(user, dynamicQueryTemplates, baseProbabilityFilter);
-                processedUsers.add(processedUser);
-            }
+        List<BaseUserConfig> processedUsers = new ArrayList<>();
 
-            return Collections.unmodifiableMap(processedUsers.stream()
-                    .collect(Collectors.toMap(BaseUserConfig::getUserName, Function.identity())));
+        for (BaseUserConfig user : userList) {
+            BaseUserConfig processedUser = processUser(user, dynamicQueryTemplates, baseProbabilityFilter);
+            processedUsers.add(processedUser);
         }
+
+        return Collections.unmodifiableMap(processedUsers.stream()
+                .collect(Collectors.toMap(BaseUserConfig::getUserName, Function.identity())));
     }
 
     private BaseUserConfig processUser(BaseUserConfig user, Map<String, RandomQueryConfig> dynamicQueryTemplates, int defaultFilterProbability) throws IOException {
@@ -162,12 +256,13 @@ public class ConfigLoader {
             throw new IOException("File not found: " + queriesFile);
         }
 
-        try (InputStream is = Files.newInputStream(path)) {
+        return parseOnce(FileKind.PAGES, path, is -> {
             JsonNode rootNode = mapper.readTree(is);
 
             if (!rootNode.isObject()) {
                 throw new IOException("Expected object structure in " + queriesFile);
             }
+            prefetchPageQueries(rootNode);
 
             Map<String, RandomQueryConfig> result = new HashMap<>();
 
@@ -184,7 +279,7 @@ public class ConfigLoader {
             });
 
             return Collections.unmodifiableMap(result);
-        }
+        });
     }
 
     private Map<String, List<String>> loadQueriesMapFromFile(String queriesFile) throws IOException {
@@ -223,68 +318,62 @@ public class ConfigLoader {
         if (!Files.exists(path)) {
             throw new IOException("File not found: " + queriesFile);
         }
+        if (isCorpus(path)) {
+            throw new IOException("Query corpus files can only be used as a page queries_file: " + queriesFile);
+        }
 
-        try (InputStream is = Files.newInputStream(path)) {
-            JsonNode rootNode = mapper.readTree(is);
-
-            if (rootNode.isArray()) {
-                return mapper.convertValue(rootNode, new TypeReference<List<String>>() {
-                });
-            } else {
-                throw new IOException("Expected array structure in file: " + queriesFile +
-                        ", but got: " + rootNode.getNodeType());
+        if (isTextList(path)) {
+            return parseOnce(FileKind.QUERIES, path, this::readTextList);
+        }
+        return parseOnce(FileKind.QUERIES, path, is -> {
+            try (JsonParser parser = mapper.getFactory().createParser(is)) {
+                JsonToken token = parser.nextToken();
+                if (token != JsonToken.START_ARRAY) {
+                    throw new IOException("Expected array structure in file: " + queriesFile +
+                            ", but got: " + nodeType(token));
+                }
+                return readQueries(parser, queriesFile);
             }
+        });
+    }
+
+    private MappedQueryPool loadQueryCorpus(String corpusFile) throws IOException {
+        Path path = resolvePath(corpusFile);
+        if (!Files.exists(path)) {
+            throw new IOException("File not found: " + corpusFile);
         }
+        return loadOnce(FileKind.CORPUS, path, MappedQueryPool::open);
     }
 
     private List<String> loadFiltersFromFile(String filtersFile) throws IOException {
+        return applyWeights(parseFiltersFile(filtersFile));
+    }
+
+    private ParsedFilters<List<String>> parseFiltersFile(String filtersFile) throws IOException {
         Path path = resolvePath(filtersFile);
         if (!Files.exists(path)) {
             throw new IOException("File not found: " + filtersFile);
         }
 
-        try (InputStream is = Files.newInputStream(path)) {
-            JsonNode rootNode = mapper.readTree(is);
-
-            if (rootNode.isArray()) {
-                return mapper.convertValue(rootNode, new TypeReference<List<String>>() {
-                });
-            } else {
-                throw new IOException("Expected array structure in filters file: " + filtersFile +
-                        ", but got: " + rootNode.getNodeType());
-            }
+        if (isTextList(path)) {
+            return parseOnce(FileKind.FILTERS, path,
+                    is -> new ParsedFilters<>(readTextList(is), Collections.<List<String>, double[]>emptyMap()));
         }
+        return parseOnce(FileKind.FILTERS, path, is -> {
+            try (JsonParser parser = mapper.getFactory().createParser(is)) {
+                JsonToken token = parser.nextToken();
+                if (token != JsonToken.START_ARRAY) {
+                    throw new IOException("Expected array structure in filters file: " + filtersFile +
+                            ", but got: " + nodeType(token));
+                }
+                Map<List<String>, double[]> weights = new IdentityHashMap<>();
+                return new ParsedFilters<>(readFilters(parser, weights), weights);
+            }
+        });
     }
 
     private Map<String, RandomQueryConfig> loadDynamicQueries(String dynamicQueriesPath) throws IOException {
-        Path path = resolvePath(dynamicQueriesPath);
-        if (!Files.exists(path)) {
-            throw new IOException("File not found: " + dynamicQueriesPath);
-        }
-
-        try (InputStream is = Files.newInputStream(path)) {
-            JsonNode rootNode = mapper.readTree(is);
-
-            if (!rootNode.isObject()) {
-                throw new IOException("Expected object structure in " + dynamicQueriesPath);
-            }
-
-            Map<String, RandomQueryConfig> result = new HashMap<>();
-
-            rootNode.fields().forEachRemaining(entry -> {
-                String key = entry.getKey();
-                JsonNode value = entry.getValue();
-
-                try {
-                    RandomQueryConfig queryConfig = parseRandomQueryConfig(value);
-                    result.put(key, queryConfig);
-                } catch (IOException e) {
-                    throw new RuntimeException("Error processing queries for key: " + key, e);
-                }
-            });
-
-            return Collections.unmodifiableMap(result);
-        }
+        return loadQueriesAsRandomQueryConfigFromFile(dynamicQueriesPath);
     }
 
     private RandomQueryConfig parseRandomQueryConfig(JsonNode node) throws IOException {
@@ -295,6 +384,18 @@ public class ConfigLoader {
         } else if (node.isObject()) {
             RandomQueryConfig config = mapper.convertValue(node, RandomQueryConfig.class);
 
+            if (config.hasQueriesFile() && isCorpus(resolvePath(config.getQueriesFile()))) {
+                RandomQueryConfig pooled;
+                try {
+                    pooled = config.withQueryPool(loadQueryCorpus(config.getQueriesFile()));
+                } catch (IOException e) {
+                    System.err.println("Warning: Could not load queries from file " + config.getQueriesFile() + ": " + e.getMessage());
+                    return config;
+                }
+                checkCorpusSelection(pooled);
+                return pooled;
+            }
+
             if (config.hasQueriesFile()) {
                 try {
                     List<String> queriesFromFile = loadQueriesListFromFile(config.getQueriesFile());
@@ -311,6 +412,24 @@ public class ConfigLoader {
         }
     }
 
+    /**
+     * Corpus templates are compiled when they are drawn, so a corpus page must pick a bounded number of queries per
+     * iteration. Selecting all of a multi-million-entry corpus, or a percentage of it, would compile and sample
+     * millions of templates on every call.
+     */
+    private void checkCorpusSelection(RandomQueryConfig config) throws IOException {
+        if (config.isAllSelectEnabled()) {
+            throw new IOException("Query corpus " + config.getQueriesFile() + " cannot be used with is_all_select: "
+                    + "true; set is_all_select: false and min_selected_queries");
+        }
+        int count = PagePlan.selectionCount(config, config.getQueryPool().size());
+        if (count > MAX_CORPUS_SELECTION) {
+            throw new IOException("Query corpus " + config.getQueriesFile() + " selects " + count
+                    + " queries per iteration, more than " + MAX_CORPUS_SELECTION + "; lower min_selected_queries "
+                    + "or max_count_selected_in_percent (0 selects exactly min_selected_queries)");
+        }
+    }
+
     private List<String> extractQueries(JsonNode node) throws IOException {
         if (node.isArray()) {
             return mapper.convertValue(node, new TypeReference<List<String>>() {
@@ -331,30 +450,184 @@ public class ConfigLoader {
     }
 
     private Map<String, List<String>> loadDynamicFilters(String dynamicFiltersPath) throws IOException {
-        try (InputStream is = Files.newInputStream(resolvePath(dynamicFiltersPath))) {
-            JsonNode rootNode = mapper.readTree(is);
+        return applyWeights(parseDynamicFilters(dynamicFiltersPath));
+    }
+
+    private ParsedFilters<Map<String, List<String>>> parseDynamicFilters(String dynamicFiltersPath) throws IOException {
+        Path path = resolvePath(dynamicFiltersPath);
+        if (isTextList(path)) {
+            return parseOnce(FileKind.FILTER_GROUPS, path, is -> new ParsedFilters<>(
+                    Collections.singletonMap(DEFAULT_FILTERS_KEY, readTextList(is)),
+                    Collections.<List<String>, double[]>emptyMap()));
+        }
+        return parseOnce(FileKind.FILTER_GROUPS, path, is -> {
             Map<String, List<String>> result = new HashMap<>();
+            Map<List<String>, double[]> weights = new IdentityHashMap<>();
+
+            try (JsonParser parser = mapper.getFactory().createParser(is)) {
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.START_ARRAY) {
+                    result.put(DEFAULT_FILTERS_KEY, readFilters(parser, weights));
+                } else if (token == JsonToken.START_OBJECT) {
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        String key = parser.getCurrentName();
+                        token = parser.nextToken();
+                        try {
+                            if (token != JsonToken.START_ARRAY) {
+                                parser.skipChildren();
+                                throw new IOException("Expected array of filters, but got: " + nodeType(token));
+                            }
+                            result.put(key, readFilters(parser, weights));
+                        } catch (Exception e) {
+                            throw new RuntimeException("Error processing filters for key: " + key, e);
+                        }
+                    }
+                }
+            }
 
-            if (rootNode.isArray()) {
-                List<String> filters = mapper.convertValue(rootNode, new TypeReference<List<String>>() {
-                });
-                result.put(DEFAULT_FILTERS_KEY, filters);
-            } else if (rootNode.isObject()) {
-                rootNode.fields().forEachRemaining(entry -> {
-                    String key = entry.getKey();
-                    JsonNode value = entry.getValue();
+            return new ParsedFilters<>(Collections.unmodifiableMap(result), weights);
+        });
+    }
 
-                    try {
-                        List<String> filters = mapper.convertValue(value, new TypeReference<List<String>>() {
-                        });
-                        result.put(key, filters);
-                    } catch (Exception e) {
-                        throw new RuntimeException("Error processing filters for key: " + key, e);
-                    }
-                });
+    /**
+     * Records the weights of a parsed filter file's lists once the assembly uses it. They are keyed by list identity,
+     * so they only apply to users that share that exact list.
+     */
+    private <T> T applyWeights(ParsedFilters<T> parsed) {
+        filterWeights.putAll(parsed.weights);
+        return parsed.filters;
+    }
+
+    /**
+     * Reads the rest of a query list, positioned just after its {@code START_ARRAY}, token by token into the final
+     * list without building a tree first.
+     */
+    private List<String> readQueries(JsonParser parser, String queriesFile) throws IOException {
+        FrozenList.Builder<String> queries = new FrozenList.Builder<>();
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (token == null || !token.isScalarValue()) {
+                throw new IOException("Expected query strings in file: " + queriesFile + ", but got: "
+                        + nodeType(token) + " at line " + parser.getCurrentLocation().getLineNr());
             }
+            queries.add(token == JsonToken.VALUE_NULL ? null : parser.getText());
+        }
+        return queries.build();
+    }
 
-            return Collections.unmodifiableMap(result);
+    /**
+     * Streams a filter list, positioned just after its {@code START_ARRAY}. Items are either plain expressions or
+     * {@code {filter: ..., weight: ...}} objects. If any entry is weighted, the weights by position are put into
+     * {@code weights} under the returned list and applied when user plans are compiled.
+     */
+    private List<String> readFilters(JsonParser parser, Map<List<String>, double[]> weights) throws IOException {
+        FrozenList.Builder<String> filters = new FrozenList.Builder<>();
+        FilterWeights entryWeights = new FilterWeights();
+        int size = 0;
+        for (JsonToken token = parser.nextToken(); token != JsonToken.END_ARRAY; token = parser.nextToken()) {
+            if (token == null) {
+                throw new IOException("Unexpected end of filters list");
+            }
+            if (token == JsonToken.START_OBJECT) {
+                filters.add(readWeightedFilter(parser, entryWeights, size));
+            } else if (token == JsonToken.START_ARRAY) {
+                parser.skipChildren();
+                filters.add("");
+            } else {
+                filters.add(parser.getText());
+            }
+            size++;
+        }
+        List<String> list = filters.build();
+        double[] listWeights = entryWeights.toArray(size);
+        if (listWeights != null) {
+            weights.put(list, listWeights);
+        }
+        return list;
+    }
+
+    private String readWeightedFilter(JsonParser parser, FilterWeights weights, int index) throws IOException {
+        int line = parser.getCurrentLocation().getLineNr();
+        String filter = null;
+        Double weight = null;
+        boolean invalidWeight = false;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (FILTER_KEY.equals(field) && value == JsonToken.VALUE_STRING) {
+                filter = parser.getText();
+            } else if (WEIGHT_KEY.equals(field)) {
+                if (value.isNumeric() && parser.getDoubleValue() >= 0) {
+                    weight = parser.getDoubleValue();
+                } else {
+                    invalidWeight = true;
+                }
+            }
+            parser.skipChildren();
+        }
+
+        if (filter == null) {
+            throw new IOException("Weighted filter entry must have a '" + FILTER_KEY + "' string at line " + line);
+        }
+        if (invalidWeight) {
+            throw new IOException("Filter weight must be a non-negative number at line " + line + ": " + filter);
+        }
+        if (weight != null) {
+            weights.set(index, weight);
+        }
+        return filter;
+    }
+
+    /**
+     * Files with the {@code .txt} extension hold one entry per line, for lists too big to go through YAML. Blank
+     * lines are skipped; entries are taken as is, with no weights.
+     */
+    private boolean isTextList(Path path) {
+        Path fileName = path.getFileName();
+        return fileName != null && fileName.toString().toLowerCase().endsWith(TEXT_LIST_EXTENSION);
+    }
+
+    /**
+     * Files with the {@code .corpus} extension use the same one-per-line format, but are memory-mapped behind an
+     * offset index instead of being read onto the heap; see {@link MappedQueryPool}.
+     */
+    private boolean isCorpus(Path path) {
+        Path fileName = path.getFileName();
+        return fileName != null && fileName.toString().toLowerCase().endsWith(CORPUS_EXTENSION);
+    }
+
+    private List<String> readTextList(InputStream is) throws IOException {
+        FrozenList.Builder<String> entries = new FrozenList.Builder<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(is, StandardCharsets.UTF_8),
+                TEXT_LIST_BUFFER_SIZE);
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            if (!line.trim().isEmpty()) {
+                entries.add(line);
+            }
+        }
+        return entries.build();
+    }
+
+    private static String nodeType(JsonToken token) {
+        if (token == null) {
+            return "MISSING";
+        }
+        switch (token) {
+            case START_ARRAY:
+                return "ARRAY";
+            case START_OBJECT:
+                return "OBJECT";
+            case VALUE_STRING:
+                return "STRING";
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return "NUMBER";
+            case VALUE_TRUE:
+            case VALUE_FALSE:
+                return "BOOLEAN";
+            case VALUE_NULL:
+                return "NULL";
+            default:
+                return token.name();
         }
     }
 
@@ -405,7 +678,94 @@ public class ConfigLoader {
             return Collections.emptyList();
         }
 
-        return loadFiltersFromFile(dynamicFiltersPath);
+        return loadDynamicFilters(dynamicFiltersPath).getOrDefault(DEFAULT_FILTERS_KEY, Collections.emptyList());
+    }
+
+    /**
+     * Parses a file at most once per {@link #load()}: later lookups of the same content get the same (immutable)
+     * instance. Entries are keyed by the normalized absolute path, what was read from it, and the file's modification
+     * time and size, so a file rewritten during the load is parsed again.
+     */
+    private <T> T parseOnce(FileKind kind, Path path, FileParser<T> parser) throws IOException {
+        return loadOnce(kind, path, resolved -> {
+            try (InputStream is = Files.newInputStream(resolved)) {
+                return parser.parse(is);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T loadOnce(FileKind kind, Path path, FileLoader<T> loader) throws IOException {
+        Path resolved = path.toAbsolutePath().normalize();
+        BasicFileAttributes attributes = Files.readAttributes(resolved, BasicFileAttributes.class);
+        FileKey key = new FileKey(kind, resolved, attributes.lastModifiedTime().toMillis(), attributes.size());
+
+        Object parsed = parsedFiles.get(key);
+        if (parsed == null) {
+            parsed = loader.load(resolved);
+            Object raced = parsedFiles.putIfAbsent(key, parsed);
+            if (raced != null) {
+                parsed = raced;
+            }
+        }
+        return (T) parsed;
+    }
+
+    private void prefetch(Map<String, Object> config, int parallelism) throws IOException {
+        ParallelLoad load = new ParallelLoad(new ForkJoinPool(parallelism));
+        parallelLoad = load;
+        try {
+            List<LoadTask> roots = new ArrayList<>();
+            roots.add(new LoadTask(FileKind.USERS, (String) config.get("users_config_path"), true));
+            roots.add(new LoadTask(FileKind.PAGES, (String) config.get("queries_path"), true));
+            roots.add(new LoadTask(FileKind.FILTER_GROUPS, (String) config.get("filters_path"), true));
+            load.pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    invokeAll(roots);
+                }
+            });
+        } finally {
+            parallelLoad = null;
+            load.pool.shutdown();
+        }
+
+        if (!load.failures.isEmpty()) {
+            List<LoadFailure> failures = new ArrayList<>(load.failures);
+            failures.sort(Comparator.comparing((LoadFailure failure) -> failure.file)
+                    .thenComparing(failure -> failure.kind));
+            StringBuilder message = new StringBuilder("Failed to load ").append(failures.size())
+                    .append(" configuration file(s):");
+            for (LoadFailure failure : failures) {
+                message.append(System.lineSeparator()).append("  ").append(failure.file).append(": ")
+                        .append(failure.error.getMessage());
+            }
+            IOException error = new IOException(message.toString(), failures.get(0).error);
+            for (int i = 1; i < failures.size(); i++) {
+                error.addSuppressed(failures.get(i).error);
+            }
+            throw error;
+        }
+    }
+
+    /**
+     * During a parallel load, parses the {@code queries_file}s referenced by a pages file concurrently before its
+     * pages are built from them. Failures are left to the sequential fallback, which only warns about them.
+     */
+    private void prefetchPageQueries(JsonNode pages) {
+        ParallelLoad load = parallelLoad;
+        if (load == null || ForkJoinTask.getPool() != load.pool) {
+            return;
+        }
+        List<LoadTask> tasks = new ArrayList<>();
+        pages.fields().forEachRemaining(entry -> {
+            JsonNode queriesFile = entry.getValue().get("queries_file");
+            if (entry.getValue().isObject() && queriesFile != null && queriesFile.isTextual()) {
+                FileKind kind = isCorpus(resolvePath(queriesFile.asText())) ? FileKind.CORPUS : FileKind.QUERIES;
+                tasks.add(new LoadTask(kind, queriesFile.asText(), false));
+            }
+        });
+        ForkJoinTask.invokeAll(tasks);
     }
 
     /**
@@ -426,4 +786,182 @@ public class ConfigLoader {
         // Path is relative and baseDir is set, prepend baseDir
         return Paths.get(baseDir.toString(), filePath);
     }
+
+    @FunctionalInterface
+    private interface FileParser<T> {
+        T parse(InputStream is) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface FileLoader<T> {
+        T load(Path path) throws IOException;
+    }
+
+    private enum FileKind {
+        CONFIG, USERS, PAGES, QUERIES, CORPUS, FILTERS, FILTER_GROUPS
+    }
+
+    private static final class ParsedFilters<T> {
+        private final T filters;
+        private final Map<List<String>, double[]> weights;
+
+        private ParsedFilters(T filters, Map<List<String>, double[]> weights) {
+            this.filters = filters;
+            this.weights = weights;
+        }
+    }
+
+    /**
+     * Weights of one filter list by position, unweighted entries counting as 1. Nothing is allocated until the first
+     * weighted entry, as most lists have none.
+     */
+    private static final class FilterWeights {
+        private double[] values;
+
+        private void set(int index, double weight) {
+            if (values == null || index >= values.length) {
+                grow(Math.max(16, index * 2));
+            }
+            values[index] = weight;
+        }
+
+        private double[] toArray(int size) {
+            if (values == null) {
+                return null;
+            }
+            if (size > values.length) {
+                grow(size);
+            }
+            return Arrays.copyOf(values, size);
+        }
+
+        private void grow(int capacity) {
+            int filled = values != null ? values.length : 0;
+            values = values != null ? Arrays.copyOf(values, capacity) : new double[capacity];
+            Arrays.fill(values, filled, capacity, 1.0);
+        }
+    }
+
+    private static final class ParallelLoad {
+        private final ForkJoinPool pool;
+        private final Set<String> claimed = ConcurrentHashMap.newKeySet();
+        private final Queue<LoadFailure> failures = new ConcurrentLinkedQueue<>();
+
+        private ParallelLoad(ForkJoinPool pool) {
+            this.pool = pool;
+        }
+    }
+
+    private static final class LoadFailure {
+        private final String file;
+        private final FileKind kind;
+        private final Exception error;
+
+        private LoadFailure(String file, FileKind kind, Exception error) {
+            this.file = file;
+            this.kind = kind;
+            this.error = error;
+        }
+    }
+
+    /**
+     * Parses one file into the cache, then the files it references. Each (kind, path) pair is claimed once, so a
+     * file shared by many users is parsed by one task only.
+     */
+    private final class LoadTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final FileKind kind;
+        private final String file;
+        private final boolean required;
+
+        private LoadTask(FileKind kind, String file, boolean required) {
+            this.kind = kind;
+            this.file = file;
+            this.required = required;
+        }
+
+        @Override
+        protected void compute() {
+            ParallelLoad load = parallelLoad;
+            if (file == null || !load.claimed.add(kind + ":" + resolvePath(file).toAbsolutePath().normalize())) {
+                return;
+            }
+            try {
+                switch (kind) {
+                    case USERS:
+                        invokeAll(referencedFiles(loadUserList(file)));
+                        break;
+                    case PAGES:
+                        loadQueriesAsRandomQueryConfigFromFile(file);
+                        break;
+                    case QUERIES:
+                        loadQueriesListFromFile(file);
+                        break;
+                    case CORPUS:
+                        loadQueryCorpus(file);
+                        break;
+                    case FILTERS:
+                        parseFiltersFile(file);
+                        break;
+                    case FILTER_GROUPS:
+                        parseDynamicFilters(file);
+                        break;
+                    default:
+                        throw new IllegalStateException("Unexpected file kind: " + kind);
+                }
+            } catch (Exception e) {
+                if (required) {
+                    load.failures.add(new LoadFailure(file, kind, e));
+                }
+            }
+        }
+
+        private List<LoadTask> referencedFiles(List<BaseUserConfig> users) {
+            List<LoadTask> tasks = new ArrayList<>();
+            for (BaseUserConfig user : users) {
+                if (user instanceof StaticUserConfig && ((StaticUserConfig) user).hasQueriesFile()) {
+                    tasks.add(new LoadTask(FileKind.QUERIES, ((StaticUserConfig) user).getQueriesFile(), true));
+                } else if (user instanceof RandomUserConfig && ((RandomUserConfig) user).hasQueriesFile()) {
+                    tasks.add(new LoadTask(FileKind.PAGES, ((RandomUserConfig) user).getQueriesFile(), true));
+                }
+                if (!user.hasInlineFilters() && user.hasFiltersFile()) {
+                    tasks.add(new LoadTask(FileKind.FILTERS, user.getFiltersFile(), true));
+                }
+            }
+            return tasks;
+        }
+    }
+
+    private static final class FileKey {
+        private final FileKind kind;
+        private final Path path;
+        private final long modifiedMillis;
+        private final long size;
+
+        private FileKey(FileKind kind, Path path, long modifiedMillis, long size) {
+            this.kind = kind;
+            this.path = path;
+            this.modifiedMillis = modifiedMillis;
+            this.size = size;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof FileKey)) {
+                return false;
+            }
+            FileKey other = (FileKey) o;
+            return modifiedMillis == other.modifiedMillis && size == other.size
+                    && kind.equals(other.kind) && path.equals(other.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, path, modifiedMillis, size);
+        }
+    }
 }
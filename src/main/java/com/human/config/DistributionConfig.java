@@ -0,0 +1,102 @@
+package com.human.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.human.enums.DistributionType;
+import com.human.service.HotspotSampler;
+import com.human.service.IndexSampler;
+import com.human.service.ZipfSampler;
+
+public class DistributionConfig {
+
+    public static final double DEFAULT_EXPONENT = 1.0;
+    public static final double DEFAULT_HOT_FRACTION = 0.2;
+    public static final double DEFAULT_HOT_SHARE = 0.8;
+    public static final long DEFAULT_SHIFT_INTERVAL_SECONDS = 60;
+
+    @JsonProperty("type")
+    private final DistributionType type;
+
+    @JsonProperty("exponent")
+    private final double exponent;
+
+    @JsonProperty("hot_fraction")
+    private final double hotFraction;
+
+    @JsonProperty("hot_share")
+    private final double hotShare;
+
+    @JsonProperty("shift_interval_seconds")
+    private final long shiftIntervalSeconds;
+
+    @JsonCreator
+    public DistributionConfig(@JsonProperty("type") DistributionType type,
+                              @JsonProperty("exponent") Double exponent,
+                              @JsonProperty("hot_fraction") Double hotFraction,
+                              @JsonProperty("hot_share") Double hotShare,
+                              @JsonProperty("shift_interval_seconds") Long shiftIntervalSeconds) {
+        if (type == null) {
+            throw new IllegalArgumentException("Distribution type is required");
+        }
+        this.type = type;
+        this.exponent = (exponent != null) ? exponent : DEFAULT_EXPONENT;
+        this.hotFraction = (hotFraction != null) ? hotFraction : DEFAULT_HOT_FRACTION;
+        this.hotShare = (hotShare != null) ? hotShare : DEFAULT_HOT_SHARE;
+        this.shiftIntervalSeconds = (shiftIntervalSeconds != null) ? shiftIntervalSeconds : DEFAULT_SHIFT_INTERVAL_SECONDS;
+
+        if (type == DistributionType.SHIFTING_HOTSPOT && this.shiftIntervalSeconds <= 0) {
+            throw new IllegalArgumentException("shift_interval_seconds must be positive: " + this.shiftIntervalSeconds);
+        }
+    }
+
+    /**
+     * Builds the sampler for a pool of the given size, or returns {@code null} for a uniform distribution.
+     */
+    public IndexSampler createSampler(int poolSize) {
+        if (poolSize <= 0) {
+            return null;
+        }
+
+        switch (type) {
+            case ZIPF:
+                return new ZipfSampler(poolSize, exponent);
+            case HOTSPOT:
+                return new HotspotSampler(poolSize, hotFraction, hotShare, 0);
+            case SHIFTING_HOTSPOT:
+                return new HotspotSampler(poolSize, hotFraction, hotShare, shiftIntervalSeconds * 1000L);
+            default:
+                return null;
+        }
+    }
+
+    public DistributionType getType() {
+        return type;
+    }
+
+    public double getExponent() {
+        return exponent;
+    }
+
+    public double getHotFraction() {
+        return hotFraction;
+    }
+
+    public double getHotShare() {
+        return hotShare;
+    }
+
+    public long getShiftIntervalSeconds() {
+        return shiftIntervalSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return "DistributionConfig{" +
+                "type=" + type +
+                ", exponent=" + exponent +
+                ", hotFraction=" + hotFraction +
+                ", hotShare=" + hotShare +
+                ", shiftIntervalSeconds=" + shiftIntervalSeconds +
+                '}';
+    }
+}
@@ -0,0 +1,51 @@
+package com.human.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Number of filters stacked per iteration: either a fixed {@code filter_count: 3} or a uniform range
+ * {@code filter_count: {min: 1, max: 5}}.
+ */
+public class FilterCountConfig {
+
+    public static final FilterCountConfig SINGLE = new FilterCountConfig(1, 1);
+
+    @JsonProperty("min")
+    private final int min;
+
+    @JsonProperty("max")
+    private final int max;
+
+    @JsonCreator
+    public FilterCountConfig(@JsonProperty("min") Integer min,
+                             @JsonProperty("max") Integer max) {
+        this.min = (min != null) ? min : 1;
+        this.max = (max != null) ? max : this.min;
+
+        if (this.min < 1) {
+            throw new IllegalArgumentException("filter_count min must be at least 1: " + this.min);
+        }
+        if (this.max < this.min) {
+            throw new IllegalArgumentException("filter_count max " + this.max + " is less than min " + this.min);
+        }
+    }
+
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static FilterCountConfig fixed(int count) {
+        return new FilterCountConfig(count, count);
+    }
+
+    public int getMin() {
+        return min;
+    }
+
+    public int getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return min == max ? String.valueOf(min) : min + ".." + max;
+    }
+}
@@ -0,0 +1,65 @@
+package com.human.config;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * Immutable array-backed list. Config constructors keep a {@code FrozenList} as is instead of copying it, so every
+ * user loaded from the same file shares one list.
+ */
+final class FrozenList<E> extends AbstractList<E> implements RandomAccess {
+
+    private final Object[] elements;
+
+    private FrozenList(Object[] elements) {
+        this.elements = elements;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E> List<E> copyOf(Collection<? extends E> source) {
+        if (source instanceof FrozenList) {
+            return (List<E>) source;
+        }
+        if (source.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return new FrozenList<>(source.toArray());
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        return (E) elements[index];
+    }
+
+    @Override
+    public int size() {
+        return elements.length;
+    }
+
+    /**
+     * Appends into a growing array that becomes the list's storage, for loaders that stream their entries.
+     */
+    static final class Builder<E> {
+        private Object[] elements = new Object[16];
+        private int size;
+
+        void add(E element) {
+            if (size == elements.length) {
+                elements = Arrays.copyOf(elements, size * 2);
+            }
+            elements[size++] = element;
+        }
+
+        List<E> build() {
+            if (size == 0) {
+                return Collections.emptyList();
+            }
+            return new FrozenList<>(size == elements.length ? elements : Arrays.copyOf(elements, size));
+        }
+    }
+}
@@ -2,10 +2,19 @@ package com.human.config;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.human.service.AliasTable;
+import com.human.service.ArrayQueryPool;
+import com.human.service.CompiledTemplate;
+import com.human.service.IndexSampler;
+import com.human.service.QueryPool;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 public class RandomQueryConfig {
 
@@ -27,19 +36,60 @@ public class RandomQueryConfig {
     @JsonProperty("is_random_selection")
     private final Boolean isRandomSelection;
 
+    @JsonProperty("weight")
+    private final double weight;
+
+    @JsonProperty("query_weights")
+    private final List<Double> queryWeights;
+
+    @JsonProperty("distribution")
+    private final DistributionConfig distribution;
+
+    private final List<CompiledTemplate> compiledQueries;
+
+    private final QueryPool queryPool;
+
+    private final IndexSampler querySampler;
+
+    private final boolean poolBacked;
+
+    public RandomQueryConfig(List<String> queries,
+                             String queriesFile,
+                             Boolean isAllSelect,
+                             Integer minSelectedQueries,
+                             Integer maxCountSelectedInPercent,
+                             Boolean isRandomSelection) {
+        this(queries, queriesFile, isAllSelect, minSelectedQueries, maxCountSelectedInPercent, isRandomSelection,
+                null, null, null);
+    }
+
     @JsonCreator
     public RandomQueryConfig(@JsonProperty("queries") List<String> queries,
                              @JsonProperty("queries_file") String queriesFile,
                              @JsonProperty("is_all_select") Boolean isAllSelect,
                              @JsonProperty("min_selected_queries") Integer minSelectedQueries,
                              @JsonProperty("max_count_selected_in_percent") Integer maxCountSelectedInPercent,
-                             @JsonProperty("is_random_selection") Boolean isRandomSelection) {
-        this.queries = (queries != null) ? Collections.unmodifiableList(new ArrayList<>(queries)) : Collections.emptyList();
+                             @JsonProperty("is_random_selection") Boolean isRandomSelection,
+                             @JsonProperty("weight") Double weight,
+                             @JsonProperty("query_weights") List<Double> queryWeights,
+                             @JsonProperty("distribution") DistributionConfig distribution) {
+        this.queries = (queries != null) ? FrozenList.copyOf(queries) : Collections.emptyList();
         this.queriesFile = queriesFile;
         this.isAllSelect = (isAllSelect != null) ? isAllSelect : true;
         this.minSelectedQueries = (minSelectedQueries != null) ? minSelectedQueries : 2;
         this.maxCountSelectedInPercent = (maxCountSelectedInPercent != null) ? maxCountSelectedInPercent : 50;
         this.isRandomSelection = (isRandomSelection != null) ? isRandomSelection : true;
+        this.weight = (weight != null) ? weight : 1.0;
+        this.queryWeights = (queryWeights != null) ? Collections.unmodifiableList(new ArrayList<>(queryWeights)) : Collections.emptyList();
+        this.distribution = distribution;
+        this.compiledQueries = compileQueries(this.queries);
+        this.queryPool = new ArrayQueryPool(this.compiledQueries);
+        this.querySampler = compileQuerySampler(this.queries, this.queryWeights, distribution);
+        this.poolBacked = false;
+
+        if (this.weight < 0 || Double.isNaN(this.weight) || Double.isInfinite(this.weight)) {
+            throw new IllegalArgumentException("Page weight must be finite and non-negative: " + this.weight);
+        }
     }
 
     public RandomQueryConfig(String singleQuery) {
@@ -49,12 +99,162 @@ public class RandomQueryConfig {
         this.minSelectedQueries = 2; // Default minimum
         this.maxCountSelectedInPercent = 50; // Default percentage
         this.isRandomSelection = true; // Default: random selection
+        this.weight = 1.0;
+        this.queryWeights = Collections.emptyList();
+        this.distribution = null;
+        this.compiledQueries = compileQueries(this.queries);
+        this.queryPool = new ArrayQueryPool(this.compiledQueries);
+        this.querySampler = null;
+        this.poolBacked = false;
+    }
+
+    private RandomQueryConfig(RandomQueryConfig source,
+                              Boolean isAllSelect,
+                              Integer minSelectedQueries,
+                              Integer maxCountSelectedInPercent,
+                              Boolean isRandomSelection) {
+        this.queries = source.queries;
+        this.queriesFile = source.queriesFile;
+        this.isAllSelect = (isAllSelect != null) ? isAllSelect : true;
+        this.minSelectedQueries = (minSelectedQueries != null) ? minSelectedQueries : 2;
+        this.maxCountSelectedInPercent = (maxCountSelectedInPercent != null) ? maxCountSelectedInPercent : 50;
+        this.isRandomSelection = (isRandomSelection != null) ? isRandomSelection : true;
+        this.weight = source.weight;
+        this.queryWeights = source.queryWeights;
+        this.distribution = source.distribution;
+        this.compiledQueries = source.compiledQueries;
+        this.queryPool = source.queryPool;
+        this.querySampler = source.querySampler;
+        this.poolBacked = source.poolBacked;
+    }
+
+    /**
+     * Page over an external pool: the query lists are read-through views of the pool, so nothing is copied.
+     */
+    private RandomQueryConfig(RandomQueryConfig source, QueryPool queryPool) {
+        this.queries = new AbstractList<String>() {
+            @Override
+            public String get(int index) {
+                return queryPool.getQuery(index);
+            }
+
+            @Override
+            public int size() {
+                return queryPool.size();
+            }
+        };
+        this.queriesFile = source.queriesFile;
+        this.isAllSelect = source.isAllSelect;
+        this.minSelectedQueries = source.minSelectedQueries;
+        this.maxCountSelectedInPercent = source.maxCountSelectedInPercent;
+        this.isRandomSelection = source.isRandomSelection;
+        this.weight = source.weight;
+        this.queryWeights = source.queryWeights;
+        this.distribution = source.distribution;
+        this.compiledQueries = new AbstractList<CompiledTemplate>() {
+            @Override
+            public CompiledTemplate get(int index) {
+                return queryPool.get(index);
+            }
+
+            @Override
+            public int size() {
+                return queryPool.size();
+            }
+        };
+        this.queryPool = queryPool;
+        this.querySampler = compileQuerySampler(this.queries, this.queryWeights, distribution);
+        this.poolBacked = true;
+    }
+
+    public static RandomQueryConfig mixedOf(Collection<RandomQueryConfig> pages) {
+        Map<String, Double> queries = new LinkedHashMap<>();
+        boolean weighted = false;
+        for (RandomQueryConfig page : pages) {
+            // Corpus-backed pages are too big to copy into the mixed pool.
+            if (page.isPoolBacked()) {
+                continue;
+            }
+            weighted |= page.hasQueryWeights();
+            for (int i = 0; i < page.getQueries().size(); i++) {
+                queries.merge(page.getQueries().get(i), page.getQueryWeight(i), Double::sum);
+            }
+        }
+        return new RandomQueryConfig(new ArrayList<>(queries.keySet()), null, null, null, null, null,
+                null, weighted ? new ArrayList<>(queries.values()) : null, null);
+    }
+
+    private static IndexSampler compileQuerySampler(List<String> queries, List<Double> queryWeights,
+                                                    DistributionConfig distribution) {
+        if (distribution != null && !queryWeights.isEmpty()) {
+            throw new IllegalArgumentException("query_weights and distribution cannot be combined");
+        }
+        if (distribution != null) {
+            return distribution.createSampler(queries.size());
+        }
+        if (queryWeights.isEmpty() || queries.isEmpty()) {
+            return null;
+        }
+        if (queryWeights.size() != queries.size()) {
+            throw new IllegalArgumentException("query_weights has " + queryWeights.size()
+                    + " entries but there are " + queries.size() + " queries");
+        }
+
+        double[] weights = new double[queryWeights.size()];
+        for (int i = 0; i < weights.length; i++) {
+            Double weight = queryWeights.get(i);
+            if (weight == null) {
+                throw new IllegalArgumentException("query_weights cannot contain null values");
+            }
+            weights[i] = weight;
+        }
+        return AliasTable.of(weights);
+    }
+
+    private static List<CompiledTemplate> compileQueries(List<String> queries) {
+        List<CompiledTemplate> compiled = new ArrayList<>(queries.size());
+        for (String query : queries) {
+            compiled.add(CompiledTemplate.compile(query));
+        }
+        return Collections.unmodifiableList(compiled);
     }
 
     public List<String> getQueries() {
         return queries;
     }
 
+    public List<CompiledTemplate> getCompiledQueries() {
+        return compiledQueries;
+    }
+
+    public QueryPool getQueryPool() {
+        return queryPool;
+    }
+
+    public double getWeight() {
+        return weight;
+    }
+
+    public List<Double> getQueryWeights() {
+        return queryWeights;
+    }
+
+    public boolean hasQueryWeights() {
+        return !queryWeights.isEmpty();
+    }
+
+    public double getQueryWeight(int index) {
+        return hasQueryWeights() ? queryWeights.get(index) : 1.0;
+    }
+
+    public DistributionConfig getDistribution() {
+        return distribution;
+    }
+
+    public IndexSampler getQuerySampler() {
+        return querySampler;
+    }
+
     public String getQueriesFile() {
         return queriesFile;
     }
@@ -75,6 +275,10 @@ public class RandomQueryConfig {
         return isRandomSelection;
     }
 
+    public boolean isPoolBacked() {
+        return poolBacked;
+    }
+
     public boolean hasInlineQueries() {
         return queries != null && !queries.isEmpty();
     }
@@ -98,10 +302,27 @@ public class RandomQueryConfig {
                 isAllSelect,
                 minSelectedQueries,
                 maxCountSelectedInPercent,
-                isRandomSelection
+                isRandomSelection,
+                weight,
+                queryWeights,
+                distribution
         );
     }
 
+    public RandomQueryConfig withQueryPool(QueryPool queryPool) {
+        if (queryPool == null) {
+            throw new IllegalArgumentException("QueryPool cannot be null");
+        }
+        return new RandomQueryConfig(this, queryPool);
+    }
+
+    public RandomQueryConfig withSelection(Boolean isAllSelect,
+                                           Integer minSelectedQueries,
+                                           Integer maxCountSelectedInPercent,
+                                           Boolean isRandomSelection) {
+        return new RandomQueryConfig(this, isAllSelect, minSelectedQueries, maxCountSelectedInPercent, isRandomSelection);
+    }
+
     @Override
     public String toString() {
         return "RandomQueryConfig{" +
@@ -111,6 +332,8 @@ public class RandomQueryConfig {
                 ", minSelectedQueries=" + minSelectedQueries +
                 ", maxCountSelectedInPercent=" + maxCountSelectedInPercent +
                 ", isRandomSelection=" + isRandomSelection +
+                ", weight=" + weight +
+                ", distribution=" + distribution +
                 '}';
     }
 }
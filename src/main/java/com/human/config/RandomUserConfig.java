@@ -2,6 +2,7 @@ package com.human.config;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.human.enums.FilterJoin;
 import com.human.enums.TimePeriod;
 import com.human.enums.UserType;
 
@@ -32,6 +33,34 @@ public class RandomUserConfig extends BaseUserConfig {
     @JsonProperty("queries_file")
     private final String queriesFile;
 
+    @JsonProperty("is_all_select")
+    private final Boolean isAllSelect;
+
+    @JsonProperty("min_selected_queries")
+    private final Integer minSelectedQueries;
+
+    @JsonProperty("max_count_selected_in_percent")
+    private final Integer maxCountSelectedInPercent;
+
+    @JsonProperty("is_random_selection")
+    private final Boolean isRandomSelection;
+
+    public RandomUserConfig(String userName,
+                            Map<String, RandomQueryConfig> queries,
+                            List<TimePeriod> times,
+                            Long maxTimeLeft,
+                            Long maxTimeRight,
+                            Integer timeLeftBorder,
+                            Integer timeRightBorder,
+                            String queriesFile,
+                            List<String> filters,
+                            String filtersFile,
+                            Integer filterApplyProbability,
+                            Boolean usingFilters) {
+        this(userName, queries, times, maxTimeLeft, maxTimeRight, timeLeftBorder, timeRightBorder, queriesFile,
+                filters, filtersFile, filterApplyProbability, usingFilters, null, null, null, null, null, null, null);
+    }
+
     @JsonCreator
     public RandomUserConfig(@JsonProperty("user_name") String userName,
                             @JsonProperty("queries") Map<String, RandomQueryConfig> queries,
@@ -44,8 +73,15 @@ public class RandomUserConfig extends BaseUserConfig {
                             @JsonProperty("filters") List<String> filters,
                             @JsonProperty("filters_file") String filtersFile,
                             @JsonProperty("filter_apply_probability") Integer filterApplyProbability,
-                            @JsonProperty("using_filters") Boolean usingFilters) {
-        super(userName, filters, filtersFile, filterApplyProbability, usingFilters);
+                            @JsonProperty("using_filters") Boolean usingFilters,
+                            @JsonProperty("filter_distribution") DistributionConfig filterDistribution,
+                            @JsonProperty("filter_count") FilterCountConfig filterCount,
+                            @JsonProperty("filter_join") FilterJoin filterJoin,
+                            @JsonProperty("is_all_select") Boolean isAllSelect,
+                            @JsonProperty("min_selected_queries") Integer minSelectedQueries,
+                            @JsonProperty("max_count_selected_in_percent") Integer maxCountSelectedInPercent,
+                            @JsonProperty("is_random_selection") Boolean isRandomSelection) {
+        super(userName, filters, filtersFile, filterApplyProbability, usingFilters, filterDistribution, filterCount, filterJoin);
         this.queries = queries != null ? Collections.unmodifiableMap(queries) : Collections.emptyMap();
         this.times = times != null ? Collections.unmodifiableList(times) : Collections.emptyList();
         this.maxTimeLeft = maxTimeLeft;
@@ -53,6 +89,10 @@ public class RandomUserConfig extends BaseUserConfig {
         this.timeLeftBorder = timeLeftBorder;
         this.timeRightBorder = timeRightBorder;
         this.queriesFile = queriesFile;
+        this.isAllSelect = isAllSelect;
+        this.minSelectedQueries = minSelectedQueries;
+        this.maxCountSelectedInPercent = maxCountSelectedInPercent;
+        this.isRandomSelection = isRandomSelection;
     }
 
     @Override
@@ -88,6 +128,30 @@ public class RandomUserConfig extends BaseUserConfig {
         return queriesFile;
     }
 
+    public Boolean getIsAllSelect() {
+        return isAllSelect;
+    }
+
+    public Integer getMinSelectedQueries() {
+        return minSelectedQueries;
+    }
+
+    public Integer getMaxCountSelectedInPercent() {
+        return maxCountSelectedInPercent;
+    }
+
+    public Boolean getIsRandomSelection() {
+        return isRandomSelection;
+    }
+
+    public RandomQueryConfig getMixedQueriesConfig(RandomQueryConfig mixedQueries) {
+        return mixedQueries.withSelection(isAllSelect, minSelectedQueries, maxCountSelectedInPercent, isRandomSelection);
+    }
+
+    public boolean usesMixedQueries() {
+        return hasQueriesFile() && !hasInlineQueries();
+    }
+
     public boolean hasFixedTimeBorders() {
         return timeLeftBorder != null && timeRightBorder != null;
     }
@@ -133,7 +197,14 @@ public class RandomUserConfig extends BaseUserConfig {
                 getFilters(),
                 getFiltersFile(),
                 filterApplyProbability,
-                usingFilters
+                usingFilters,
+                filterDistribution,
+                filterCount,
+                filterJoin,
+                isAllSelect,
+                minSelectedQueries,
+                maxCountSelectedInPercent,
+                isRandomSelection
         );
     }
 
@@ -154,7 +225,14 @@ public class RandomUserConfig extends BaseUserConfig {
                 loadedFilters,
                 filtersFile,
                 filterApplyProbability != null ? filterApplyProbability : defaultFilterProbability,
-                usingFilters
+                usingFilters,
+                filterDistribution,
+                filterCount,
+                filterJoin,
+                isAllSelect,
+                minSelectedQueries,
+                maxCountSelectedInPercent,
+                isRandomSelection
         );
     }
 }
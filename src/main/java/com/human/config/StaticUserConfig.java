@@ -2,6 +2,7 @@ package com.human.config;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.human.enums.FilterJoin;
 import com.human.enums.TimePeriod;
 import com.human.enums.UserType;
 
@@ -44,6 +45,29 @@ public class StaticUserConfig extends BaseUserConfig {
     @JsonProperty("is_random_selection")
     private final Boolean isRandomSelection;
 
+    private final RandomQueryConfig queriesAsConfig;
+
+    public StaticUserConfig(String userName,
+                            List<String> queries,
+                            String queriesFile,
+                            int timeLeftBorder,
+                            int timeRightBorder,
+                            List<TimePeriod> times,
+                            Integer maxTimeLeft,
+                            Integer maxTimeRight,
+                            List<String> filters,
+                            String filtersFile,
+                            Integer filterApplyProbability,
+                            Boolean usingFilters,
+                            Boolean isAllSelect,
+                            Integer minSelectedQueries,
+                            Integer maxCountSelectedInPercent,
+                            Boolean isRandomSelection) {
+        this(userName, queries, queriesFile, timeLeftBorder, timeRightBorder, times, maxTimeLeft, maxTimeRight,
+                filters, filtersFile, filterApplyProbability, usingFilters, null, null, null,
+                isAllSelect, minSelectedQueries, maxCountSelectedInPercent, isRandomSelection);
+    }
+
     @JsonCreator
     public StaticUserConfig(@JsonProperty("user_name") String userName,
                            @JsonProperty("queries") List<String> queries,
@@ -57,12 +81,15 @@ public class StaticUserConfig extends BaseUserConfig {
                            @JsonProperty("filters_file") String filtersFile,
                            @JsonProperty("filter_apply_probability") Integer filterApplyProbability,
                            @JsonProperty("using_filters") Boolean usingFilters,
+                           @JsonProperty("filter_distribution") DistributionConfig filterDistribution,
+                           @JsonProperty("filter_count") FilterCountConfig filterCount,
+                           @JsonProperty("filter_join") FilterJoin filterJoin,
                            @JsonProperty("is_all_select") Boolean isAllSelect,
                            @JsonProperty("min_selected_queries") Integer minSelectedQueries,
                            @JsonProperty("max_count_selected_in_percent") Integer maxCountSelectedInPercent,
                            @JsonProperty("is_random_selection") Boolean isRandomSelection) {
-        super(userName, filters, filtersFile, filterApplyProbability, usingFilters);
-        this.queries = (queries != null) ? Collections.unmodifiableList(new ArrayList<>(queries)) : Collections.emptyList();
+        super(userName, filters, filtersFile, filterApplyProbability, usingFilters, filterDistribution, filterCount, filterJoin);
+        this.queries = (queries != null) ? FrozenList.copyOf(queries) : Collections.emptyList();
         this.queriesFile = queriesFile;
         this.timeLeftBorder = timeLeftBorder;
         this.timeRightBorder = timeRightBorder;
@@ -73,6 +100,14 @@ public class StaticUserConfig extends BaseUserConfig {
         this.minSelectedQueries = minSelectedQueries;
         this.maxCountSelectedInPercent = maxCountSelectedInPercent;
         this.isRandomSelection = isRandomSelection;
+        this.queriesAsConfig = new RandomQueryConfig(
+            this.queries,
+            null,
+            isAllSelect,
+            minSelectedQueries,
+            maxCountSelectedInPercent,
+            isRandomSelection
+        );
     }
 
     @Override
@@ -85,14 +120,7 @@ public class StaticUserConfig extends BaseUserConfig {
     }
 
     public RandomQueryConfig getQueriesAsConfigs() {
-        return new RandomQueryConfig(
-            queries,
-            null,
-            isAllSelect,
-            minSelectedQueries,
-            maxCountSelectedInPercent,
-            isRandomSelection
-        );
+        return queriesAsConfig;
     }
 
     public boolean hasQueries() {
@@ -169,6 +197,9 @@ public class StaticUserConfig extends BaseUserConfig {
             getFiltersFile(),
             filterApplyProbability,
             usingFilters,
+            filterDistribution,
+            filterCount,
+            filterJoin,
             isAllSelect,
             minSelectedQueries,
             maxCountSelectedInPercent,
@@ -190,6 +221,9 @@ public class StaticUserConfig extends BaseUserConfig {
             filtersFile, 
             filterApplyProbability != null ? filterApplyProbability : defaultFilterProbability,
             usingFilters,
+            filterDistribution,
+            filterCount,
+            filterJoin,
             isAllSelect,
             minSelectedQueries,
             maxCountSelectedInPercent,
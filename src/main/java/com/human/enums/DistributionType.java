@@ -0,0 +1,14 @@
+package com.human.enums;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public enum DistributionType {
+    @JsonProperty("uniform")
+    UNIFORM,
+    @JsonProperty("zipf")
+    ZIPF,
+    @JsonProperty("hotspot")
+    HOTSPOT,
+    @JsonProperty("shifting_hotspot")
+    SHIFTING_HOTSPOT
+}
@@ -0,0 +1,20 @@
+package com.human.enums;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public enum FilterJoin {
+    @JsonProperty("and")
+    AND(" AND "),
+    @JsonProperty("or")
+    OR(" OR ");
+
+    private final String separator;
+
+    FilterJoin(String separator) {
+        this.separator = separator;
+    }
+
+    public String getSeparator() {
+        return separator;
+    }
+}
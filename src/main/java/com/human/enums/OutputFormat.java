@@ -0,0 +1,16 @@
+package com.human.enums;
+
+public enum OutputFormat {
+    NDJSON,
+    CSV,
+    BINARY;
+
+    public static OutputFormat fromName(String name) {
+        for (OutputFormat format : values()) {
+            if (format.name().equalsIgnoreCase(name)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("Unknown output format: " + name + " (expected ndjson, csv or binary)");
+    }
+}
@@ -0,0 +1,7 @@
+package com.human.enums;
+
+public enum SelectionMode {
+    ALL,
+    FIRST,
+    RANDOM
+}
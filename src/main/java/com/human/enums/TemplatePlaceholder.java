@@ -0,0 +1,40 @@
+package com.human.enums;
+
+public enum TemplatePlaceholder {
+    TIME_LEFT_BORDER("time_left_border", null),
+    TIME_RIGHT_BORDER("time_right_border", null),
+    FILTER_BLOCK("filter_block", "("),
+    FILTER_AND_BLOCK("filter_and_block", "AND ("),
+    FILTER_OR_BLOCK("filter_or_block", "OR (");
+
+    public static final String FILTER_SUFFIX = ")";
+
+    private final String key;
+    private final String filterPrefix;
+
+    TemplatePlaceholder(String key, String filterPrefix) {
+        this.key = key;
+        this.filterPrefix = filterPrefix;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public String getFilterPrefix() {
+        return filterPrefix;
+    }
+
+    public boolean isTimeBorder() {
+        return this == TIME_LEFT_BORDER || this == TIME_RIGHT_BORDER;
+    }
+
+    public static TemplatePlaceholder fromKey(String key) {
+        for (TemplatePlaceholder placeholder : values()) {
+            if (placeholder.key.equals(key)) {
+                return placeholder;
+            }
+        }
+        return null;
+    }
+}
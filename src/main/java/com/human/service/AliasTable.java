@@ -0,0 +1,117 @@
+package com.human.service;
+
+/**
+ * Vose alias table for O(1) weighted index sampling. Built once from non-negative weights; sampling costs one
+ * bounded int and one double draw and allocates nothing.
+ */
+public final class AliasTable implements IndexSampler {
+
+    private final double[] probability;
+    private final int[] alias;
+    private final double[] weights;
+    private final int positiveCount;
+
+    private AliasTable(double[] probability, int[] alias, double[] weights, int positiveCount) {
+        this.probability = probability;
+        this.alias = alias;
+        this.weights = weights;
+        this.positiveCount = positiveCount;
+    }
+
+    /**
+     * Returns {@code null} when the weights are absent or all equal, so callers can keep the plain uniform draw.
+     */
+    public static AliasTable of(double[] weights) {
+        if (weights == null || weights.length == 0) {
+            return null;
+        }
+
+        double total = 0;
+        int positive = 0;
+        int firstPositive = -1;
+        boolean uniform = true;
+        for (double weight : weights) {
+            if (Double.isNaN(weight) || Double.isInfinite(weight) || weight < 0) {
+                throw new IllegalArgumentException("Weights must be finite and non-negative: " + weight);
+            }
+            total += weight;
+            if (weight > 0) {
+                positive++;
+            }
+            uniform &= weight == weights[0];
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one weight must be positive");
+        }
+        if (uniform) {
+            return null;
+        }
+
+        int n = weights.length;
+        double[] scaled = new double[n];
+        double[] probability = new double[n];
+        int[] alias = new int[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallSize = 0;
+        int largeSize = 0;
+
+        for (int i = 0; i < n; i++) {
+            if (firstPositive < 0 && weights[i] > 0) {
+                firstPositive = i;
+            }
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1.0) {
+                small[smallSize++] = i;
+            } else {
+                large[largeSize++] = i;
+            }
+        }
+
+        while (smallSize > 0 && largeSize > 0) {
+            int less = small[--smallSize];
+            int more = large[--largeSize];
+            probability[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallSize++] = more;
+            } else {
+                large[largeSize++] = more;
+            }
+        }
+        while (largeSize > 0) {
+            int index = large[--largeSize];
+            probability[index] = 1.0;
+            alias[index] = index;
+        }
+        while (smallSize > 0) {
+            int index = small[--smallSize];
+            probability[index] = weights[index] > 0 ? 1.0 : 0.0;
+            alias[index] = weights[index] > 0 ? index : firstPositive;
+        }
+
+        return new AliasTable(probability, alias, weights.clone(), positive);
+    }
+
+    @Override
+    public int sample(QueryRandom random) {
+        int index = random.nextInt(probability.length);
+        return random.nextDouble() < probability[index] ? index : alias[index];
+    }
+
+    @Override
+    public int size() {
+        return probability.length;
+    }
+
+    @Override
+    public int getPositiveCount() {
+        return positiveCount;
+    }
+
+    @Override
+    public double getWeight(int index) {
+        return weights[index];
+    }
+}
@@ -0,0 +1,22 @@
+package com.human.service;
+
+import java.util.List;
+
+public final class ArrayQueryPool implements QueryPool {
+
+    private final CompiledTemplate[] templates;
+
+    public ArrayQueryPool(List<CompiledTemplate> templates) {
+        this.templates = templates.toArray(new CompiledTemplate[0]);
+    }
+
+    @Override
+    public int size() {
+        return templates.length;
+    }
+
+    @Override
+    public CompiledTemplate get(int index) {
+        return templates[index];
+    }
+}
@@ -0,0 +1,57 @@
+package com.human.service;
+
+import java.nio.ByteOrder;
+
+/**
+ * Layout of the binary workload corpus. All values are little-endian and every section starts 8-byte aligned.
+ * <pre>
+ * header (64 bytes)
+ *   int  magic, int version
+ *   long recordCount, long queryRefCount
+ *   int  stringCount, int reserved
+ *   long recordsOffset, long queryRefsOffset, long stringIndexOffset, long stringDataOffset
+ * string data    UTF-8 bytes of every distinct query, filter and label
+ * records        recordCount x 48 bytes:
+ *                long left border, long right border, long first query ref, int query count,
+ *                int user name, int user type, int label, int time period, int filter (-1 for none)
+ * query refs     queryRefCount x int string id, padded to 8 bytes
+ * string index   (stringCount + 1) x long end offset into string data, starting with 0
+ * </pre>
+ */
+final class BinaryCorpusFormat {
+
+    static final int MAGIC = 0x31424351;
+    static final int VERSION = 1;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 48;
+    static final int NO_STRING = -1;
+
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int RECORD_COUNT_OFFSET = 8;
+    static final int QUERY_REF_COUNT_OFFSET = 16;
+    static final int STRING_COUNT_OFFSET = 24;
+    static final int RECORDS_OFFSET = 32;
+    static final int QUERY_REFS_OFFSET = 40;
+    static final int STRING_INDEX_OFFSET = 48;
+    static final int STRING_DATA_OFFSET = 56;
+
+    static final int LEFT_BORDER = 0;
+    static final int RIGHT_BORDER = 8;
+    static final int FIRST_QUERY_REF = 16;
+    static final int QUERY_COUNT = 24;
+    static final int USER_NAME = 28;
+    static final int USER_TYPE = 32;
+    static final int LABEL = 36;
+    static final int TIME_PERIOD = 40;
+    static final int FILTER = 44;
+
+    private BinaryCorpusFormat() {
+    }
+
+    static long align(long position) {
+        return (position + 7) & ~7L;
+    }
+}
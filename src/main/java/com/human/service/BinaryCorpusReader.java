@@ -0,0 +1,198 @@
+package com.human.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.human.service.BinaryCorpusFormat.*;
+
+/**
+ * Memory-mapped reader for corpora written by {@link BinaryCorpusWriter}. Records are addressed by index and read
+ * with absolute gets, so any number of threads can share one reader. {@link #next()} hands out records from a shared
+ * atomic cursor, looping over the corpus for replay; {@link #partitionStart(int, int)} splits it into fixed
+ * per-thread ranges instead. Query bytes can be copied straight into a request buffer without decoding.
+ */
+public final class BinaryCorpusReader {
+
+    private final MappedFile file;
+    private final long recordCount;
+    private final long queryRefCount;
+    private final int stringCount;
+    private final long recordsOffset;
+    private final long queryRefsOffset;
+    private final long stringIndexOffset;
+    private final long stringDataOffset;
+    private final AtomicLong cursor = new AtomicLong();
+
+    private BinaryCorpusReader(MappedFile file) {
+        this.file = file;
+        this.recordCount = file.getLong(RECORD_COUNT_OFFSET);
+        this.queryRefCount = file.getLong(QUERY_REF_COUNT_OFFSET);
+        this.stringCount = file.getInt(STRING_COUNT_OFFSET);
+        this.recordsOffset = file.getLong(RECORDS_OFFSET);
+        this.queryRefsOffset = file.getLong(QUERY_REFS_OFFSET);
+        this.stringIndexOffset = file.getLong(STRING_INDEX_OFFSET);
+        this.stringDataOffset = file.getLong(STRING_DATA_OFFSET);
+    }
+
+    public static BinaryCorpusReader open(Path path) throws IOException {
+        MappedFile file = MappedFile.map(path, ORDER);
+        if (file.size() < HEADER_SIZE || file.getInt(MAGIC_OFFSET) != MAGIC) {
+            throw new IOException("Not a binary query corpus: " + path);
+        }
+        int version = file.getInt(VERSION_OFFSET);
+        if (version != VERSION) {
+            throw new IOException("Unsupported corpus version " + version + " in " + path);
+        }
+        BinaryCorpusReader reader = new BinaryCorpusReader(file);
+        if (reader.stringIndexOffset + (reader.stringCount + 1L) * Long.BYTES > file.size()) {
+            throw new IOException("Truncated binary query corpus: " + path);
+        }
+        return reader;
+    }
+
+    public long size() {
+        return recordCount;
+    }
+
+    public long getQueryRefCount() {
+        return queryRefCount;
+    }
+
+    public int getStringCount() {
+        return stringCount;
+    }
+
+    /**
+     * Next record index from the shared cursor, wrapping around at the end; {@code -1} for an empty corpus.
+     */
+    public long next() {
+        if (recordCount == 0) {
+            return -1;
+        }
+        return Math.floorMod(cursor.getAndIncrement(), recordCount);
+    }
+
+    public void resetCursor() {
+        cursor.set(0);
+    }
+
+    public long partitionStart(int partition, int partitions) {
+        checkPartition(partition, partitions);
+        return recordCount * partition / partitions;
+    }
+
+    public long partitionEnd(int partition, int partitions) {
+        checkPartition(partition, partitions);
+        return recordCount * (partition + 1) / partitions;
+    }
+
+    public long getTimeLeftBorder(long record) {
+        return file.getLong(recordOffset(record) + LEFT_BORDER);
+    }
+
+    public long getTimeRightBorder(long record) {
+        return file.getLong(recordOffset(record) + RIGHT_BORDER);
+    }
+
+    public int getQueryCount(long record) {
+        return file.getInt(recordOffset(record) + QUERY_COUNT);
+    }
+
+    public int getQueryStringId(long record, int index) {
+        long offset = recordOffset(record);
+        int count = file.getInt(offset + QUERY_COUNT);
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Query " + index + " of " + count + " in record " + record);
+        }
+        return file.getInt(queryRefsOffset + (file.getLong(offset + FIRST_QUERY_REF) + index) * Integer.BYTES);
+    }
+
+    public int getEncodedQueryLength(long record, int index) {
+        return stringLength(getQueryStringId(record, index));
+    }
+
+    /**
+     * Copies the UTF-8 bytes of a query into {@code out} without decoding them.
+     */
+    public void copyQuery(long record, int index, ByteBuffer out) {
+        int id = getQueryStringId(record, index);
+        file.copyTo(stringDataOffset + stringStart(id), stringLength(id), out);
+    }
+
+    /**
+     * Read-only view of a query's UTF-8 bytes, backed by the mapping.
+     */
+    public ByteBuffer getQueryBytes(long record, int index) {
+        int id = getQueryStringId(record, index);
+        return file.slice(stringDataOffset + stringStart(id), stringLength(id));
+    }
+
+    public String getQuery(long record, int index) {
+        return getString(getQueryStringId(record, index));
+    }
+
+    public String getUserName(long record) {
+        return getString(file.getInt(recordOffset(record) + USER_NAME));
+    }
+
+    public String getUserType(long record) {
+        return getString(file.getInt(recordOffset(record) + USER_TYPE));
+    }
+
+    public String getLabel(long record) {
+        return getString(file.getInt(recordOffset(record) + LABEL));
+    }
+
+    public String getTimePeriodName(long record) {
+        return getString(file.getInt(recordOffset(record) + TIME_PERIOD));
+    }
+
+    public String getAppliedFilter(long record) {
+        return getString(file.getInt(recordOffset(record) + FILTER));
+    }
+
+    public String getString(int id) {
+        if (id == NO_STRING) {
+            return null;
+        }
+        if (id < 0 || id >= stringCount) {
+            throw new IndexOutOfBoundsException("String " + id + " of " + stringCount);
+        }
+        return file.decode(stringDataOffset + stringStart(id), stringLength(id));
+    }
+
+    public QueryResult toQueryResult(long record) {
+        int count = getQueryCount(record);
+        List<String> queries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            queries.add(getQuery(record, i));
+        }
+        return new QueryResult(queries, getUserType(record), getLabel(record), getTimePeriodName(record),
+                getAppliedFilter(record), getTimeLeftBorder(record), getTimeRightBorder(record));
+    }
+
+    private long recordOffset(long record) {
+        if (record < 0 || record >= recordCount) {
+            throw new IndexOutOfBoundsException("Record " + record + " of " + recordCount);
+        }
+        return recordsOffset + record * RECORD_SIZE;
+    }
+
+    private long stringStart(int id) {
+        return file.getLong(stringIndexOffset + (long) id * Long.BYTES);
+    }
+
+    private int stringLength(int id) {
+        return (int) (file.getLong(stringIndexOffset + (id + 1L) * Long.BYTES) - stringStart(id));
+    }
+
+    private static void checkPartition(int partition, int partitions) {
+        if (partitions <= 0 || partition < 0 || partition >= partitions) {
+            throw new IllegalArgumentException("Invalid partition " + partition + " of " + partitions);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.human.service;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static com.human.service.BinaryCorpusFormat.*;
+
+/**
+ * Streams iterations into the binary corpus format read by {@link BinaryCorpusReader}. Distinct strings are written
+ * once to the string data as they first appear; records and query refs go to temporary files next to the output and
+ * are appended behind the string data on {@link #close()}, which also writes the index and header. Only the string
+ * dictionary is kept in memory. Not thread-safe.
+ */
+public final class BinaryCorpusWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final FileChannel output;
+    private final Path recordsFile;
+    private final Path queryRefsFile;
+    private final FileChannel records;
+    private final FileChannel queryRefs;
+    private final ByteBuffer dataBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+    private final ByteBuffer recordBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+    private final ByteBuffer queryRefBuffer = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+
+    private final Map<String, Integer> stringIds = new HashMap<>();
+    private long[] stringEnds = new long[1024];
+    private int stringCount;
+    private long dataLength;
+    private long recordCount;
+    private long queryRefCount;
+    private boolean closed;
+
+    public BinaryCorpusWriter(Path output) throws IOException {
+        Path directory = output.toAbsolutePath().getParent();
+        this.output = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.recordsFile = Files.createTempFile(directory, "records", ".tmp");
+        this.queryRefsFile = Files.createTempFile(directory, "queries", ".tmp");
+        this.records = FileChannel.open(recordsFile, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        this.queryRefs = FileChannel.open(queryRefsFile, StandardOpenOption.WRITE, StandardOpenOption.READ);
+        this.output.position(HEADER_SIZE);
+    }
+
+    public long size() {
+        return recordCount;
+    }
+
+    /**
+     * Appends the iteration held by a buffer filled through {@code QueryGenerator.generateInto}.
+     */
+    public void append(QueryResultBuffer buffer) throws IOException {
+        for (int i = 0; i < buffer.size(); i++) {
+            writeQueryRef(stringId(buffer.getQuery(i)));
+        }
+        writeRecord(buffer.getTimeLeftBorder(), buffer.getTimeRightBorder(), buffer.size(),
+                buffer.getUser() != null ? buffer.getUser().getUserName() : null, buffer.getUserType(),
+                buffer.getUserName(), buffer.getTimePeriodName(), buffer.getAppliedFilter());
+    }
+
+    public void append(QueryResult result) throws IOException {
+        for (String query : result.getQueries()) {
+            writeQueryRef(stringId(query));
+        }
+        writeRecord(result.getTimeLeftBorder(), result.getTimeRightBorder(), result.getQueries().size(), null,
+                result.getUserType(), result.getUserName(), result.getTimePeriodName(), result.getAppliedFilter());
+    }
+
+    public void append(QueryBatch batch) throws IOException {
+        int[] queryOffsets = batch.getQueryOffsets();
+        for (int r = 0; r < batch.size(); r++) {
+            for (int q = queryOffsets[r]; q < queryOffsets[r + 1]; q++) {
+                writeQueryRef(stringId(batch.getQuery(q)));
+            }
+            UserHandle user = batch.getUser(batch.getUserIds()[r]);
+            CompiledFilter filter = batch.getFilter(batch.getFilterIds()[r]);
+            writeRecord(batch.getLeftBorders()[r], batch.getRightBorders()[r], queryOffsets[r + 1] - queryOffsets[r],
+                    user.getUserName(), user.getUserType().toString(),
+                    batch.getPage(batch.getPageIds()[r]).getLabel(filter != null),
+                    batch.getTimePeriodName(batch.getPeriodIds()[r]),
+                    filter != null ? filter.getExpression() : null);
+        }
+    }
+
+    private void writeRecord(long left, long right, int queryCount, String userName, String userType, String label,
+                             String timePeriod, String filter) throws IOException {
+        if (recordBuffer.remaining() < RECORD_SIZE) {
+            flush(recordBuffer, records);
+        }
+        recordBuffer.putLong(left)
+                .putLong(right)
+                .putLong(queryRefCount - queryCount)
+                .putInt(queryCount)
+                .putInt(stringId(userName))
+                .putInt(stringId(userType))
+                .putInt(stringId(label))
+                .putInt(stringId(timePeriod))
+                .putInt(stringId(filter));
+        recordCount++;
+    }
+
+    private void writeQueryRef(int stringId) throws IOException {
+        if (queryRefBuffer.remaining() < Integer.BYTES) {
+            flush(queryRefBuffer, queryRefs);
+        }
+        queryRefBuffer.putInt(stringId);
+        queryRefCount++;
+    }
+
+    private int stringId(CharSequence value) throws IOException {
+        if (value == null) {
+            return NO_STRING;
+        }
+        String key = value.toString();
+        Integer id = stringIds.get(key);
+        if (id != null) {
+            return id;
+        }
+
+        byte[] bytes = Utf8.toBytes(key);
+        for (int offset = 0; offset < bytes.length; ) {
+            if (!dataBuffer.hasRemaining()) {
+                flush(dataBuffer, output);
+            }
+            int chunk = Math.min(dataBuffer.remaining(), bytes.length - offset);
+            dataBuffer.put(bytes, offset, chunk);
+            offset += chunk;
+        }
+        dataLength += bytes.length;
+
+        if (stringCount + 1 == stringEnds.length) {
+            stringEnds = Arrays.copyOf(stringEnds, stringEnds.length * 2);
+        }
+        stringEnds[++stringCount] = dataLength;
+        stringIds.put(key, stringCount - 1);
+        return stringCount - 1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            flush(dataBuffer, output);
+            flush(recordBuffer, records);
+            flush(queryRefBuffer, queryRefs);
+
+            long recordsOffset = align(HEADER_SIZE + dataLength);
+            long queryRefsOffset = recordsOffset + recordCount * RECORD_SIZE;
+            long stringIndexOffset = align(queryRefsOffset + queryRefCount * Integer.BYTES);
+
+            ByteBuffer padding = ByteBuffer.allocate((int) (recordsOffset - HEADER_SIZE - dataLength));
+            while (padding.hasRemaining()) {
+                output.write(padding, HEADER_SIZE + dataLength + padding.position());
+            }
+            transfer(records, recordsOffset);
+            transfer(queryRefs, queryRefsOffset);
+
+            output.position(stringIndexOffset);
+            for (int i = 0; i <= stringCount; i++) {
+                if (dataBuffer.remaining() < Long.BYTES) {
+                    flush(dataBuffer, output);
+                }
+                dataBuffer.putLong(stringEnds[i]);
+            }
+            flush(dataBuffer, output);
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+            header.putInt(MAGIC_OFFSET, MAGIC)
+                    .putInt(VERSION_OFFSET, VERSION)
+                    .putLong(RECORD_COUNT_OFFSET, recordCount)
+                    .putLong(QUERY_REF_COUNT_OFFSET, queryRefCount)
+                    .putInt(STRING_COUNT_OFFSET, stringCount)
+                    .putLong(RECORDS_OFFSET, recordsOffset)
+                    .putLong(QUERY_REFS_OFFSET, queryRefsOffset)
+                    .putLong(STRING_INDEX_OFFSET, stringIndexOffset)
+                    .putLong(STRING_DATA_OFFSET, HEADER_SIZE);
+            for (long position = 0; header.hasRemaining(); ) {
+                position += output.write(header, position);
+            }
+        } finally {
+            try {
+                records.close();
+                queryRefs.close();
+                output.close();
+            } finally {
+                Files.deleteIfExists(recordsFile);
+                Files.deleteIfExists(queryRefsFile);
+            }
+        }
+    }
+
+    private void transfer(FileChannel source, long position) throws IOException {
+        long size = source.size();
+        for (long done = 0; done < size; ) {
+            done += output.transferFrom(source.position(done), position + done, size - done);
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,35 @@
+package com.human.service;
+
+import java.util.concurrent.locks.LockSupport;
+
+final class CachedClock implements QueryClock {
+
+    private static final class Holder {
+        private static final CachedClock INSTANCE = new CachedClock();
+    }
+
+    private volatile long seconds = System.currentTimeMillis() / 1000;
+
+    private CachedClock() {
+        Thread ticker = new Thread(this::tick, "querycraft-clock");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    static CachedClock shared() {
+        return Holder.INSTANCE;
+    }
+
+    @Override
+    public long currentTimeSeconds() {
+        return seconds;
+    }
+
+    private void tick() {
+        while (true) {
+            long millis = System.currentTimeMillis();
+            seconds = millis / 1000;
+            LockSupport.parkNanos((1000 - millis % 1000) * 1_000_000L);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.human.service;
+
+import java.time.DayOfWeek;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Day and week starts (epoch seconds) in a fixed time zone. The current day's values are kept in an immutable
+ * snapshot and rebuilt only when a call falls outside that day, so lookups are a volatile read and a range check.
+ */
+public final class CalendarBoundaries {
+
+    private final ZoneId zone;
+    private volatile Day current;
+
+    public CalendarBoundaries(ZoneId zone) {
+        if (zone == null) {
+            throw new IllegalArgumentException("ZoneId cannot be null");
+        }
+        this.zone = zone;
+    }
+
+    public ZoneId getZone() {
+        return zone;
+    }
+
+    public Day at(long epochSecond) {
+        Day day = current;
+        if (day == null || epochSecond < day.startOfToday || epochSecond >= day.startOfTomorrow) {
+            day = new Day(Instant.ofEpochSecond(epochSecond).atZone(zone).toLocalDate(), zone);
+            current = day;
+        }
+        return day;
+    }
+
+    public static final class Day {
+        private final long startOfToday;
+        private final long startOfTomorrow;
+        private final long startOfYesterday;
+        private final long startOfBeforeYesterday;
+        private final long startOfSameDayPrevWeek;
+        private final long endOfSameDayPrevWeek;
+        private final long startOfThisWeek;
+        private final long startOfLastWeek;
+
+        private Day(LocalDate today, ZoneId zone) {
+            this.startOfToday = startOf(today, zone);
+            this.startOfTomorrow = startOf(today.plusDays(1), zone);
+            this.startOfYesterday = startOf(today.minusDays(1), zone);
+            this.startOfBeforeYesterday = startOf(today.minusDays(2), zone);
+            this.startOfSameDayPrevWeek = startOf(today.minusWeeks(1), zone);
+            this.endOfSameDayPrevWeek = startOf(today.minusWeeks(1).plusDays(1), zone);
+            LocalDate monday = today.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            this.startOfThisWeek = startOf(monday, zone);
+            this.startOfLastWeek = startOf(monday.minusWeeks(1), zone);
+        }
+
+        private static long startOf(LocalDate date, ZoneId zone) {
+            return date.atStartOfDay(zone).toEpochSecond();
+        }
+
+        public long getStartOfToday() {
+            return startOfToday;
+        }
+
+        public long getStartOfYesterday() {
+            return startOfYesterday;
+        }
+
+        public long getStartOfBeforeYesterday() {
+            return startOfBeforeYesterday;
+        }
+
+        public long getStartOfSameDayPrevWeek() {
+            return startOfSameDayPrevWeek;
+        }
+
+        public long getEndOfSameDayPrevWeek() {
+            return endOfSameDayPrevWeek;
+        }
+
+        public long getStartOfThisWeek() {
+            return startOfThisWeek;
+        }
+
+        public long getStartOfLastWeek() {
+            return startOfLastWeek;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.human.service;
+
+import com.human.enums.TemplatePlaceholder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Filter expression with its {@code (...)}, {@code AND (...)} and {@code OR (...)} blocks rendered and UTF-8
+ * encoded once, so substituting it into a template is a plain append.
+ */
+public final class CompiledFilter implements FilterBlock {
+
+    private static final TemplatePlaceholder[] PLACEHOLDERS = TemplatePlaceholder.values();
+
+    private final String expression;
+    private final String[] blocks;
+    private final byte[][] encodedBlocks;
+    private final int maxBlockLength;
+    private final int maxEncodedBlockLength;
+
+    private CompiledFilter(String expression) {
+        this.expression = expression;
+        this.blocks = new String[PLACEHOLDERS.length];
+        this.encodedBlocks = new byte[PLACEHOLDERS.length][];
+
+        int maxLength = 0;
+        int maxEncodedLength = 0;
+        for (TemplatePlaceholder placeholder : PLACEHOLDERS) {
+            if (placeholder.isTimeBorder()) {
+                continue;
+            }
+            String block = placeholder.getFilterPrefix() + expression + TemplatePlaceholder.FILTER_SUFFIX;
+            blocks[placeholder.ordinal()] = block;
+            encodedBlocks[placeholder.ordinal()] = Utf8.toBytes(block);
+            maxLength = Math.max(maxLength, block.length());
+            maxEncodedLength = Math.max(maxEncodedLength, encodedBlocks[placeholder.ordinal()].length);
+        }
+        this.maxBlockLength = maxLength;
+        this.maxEncodedBlockLength = maxEncodedLength;
+    }
+
+    public static CompiledFilter of(String expression) {
+        return expression != null ? new CompiledFilter(expression) : null;
+    }
+
+    public String getExpression() {
+        return expression;
+    }
+
+    public String getBlock(TemplatePlaceholder placeholder) {
+        return blocks[placeholder.ordinal()];
+    }
+
+    public byte[] getEncodedBlock(TemplatePlaceholder placeholder) {
+        return encodedBlocks[placeholder.ordinal()];
+    }
+
+    @Override
+    public void appendBlock(TemplatePlaceholder placeholder, StringBuilder out) {
+        out.append(blocks[placeholder.ordinal()]);
+    }
+
+    @Override
+    public void appendBlock(TemplatePlaceholder placeholder, Appendable out) throws IOException {
+        out.append(blocks[placeholder.ordinal()]);
+    }
+
+    @Override
+    public void encodeBlock(TemplatePlaceholder placeholder, ByteBuffer out) {
+        out.put(encodedBlocks[placeholder.ordinal()]);
+    }
+
+    @Override
+    public int getMaxBlockLength() {
+        return maxBlockLength;
+    }
+
+    @Override
+    public int getMaxEncodedBlockLength() {
+        return maxEncodedBlockLength;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return expression.equals(((CompiledFilter) o).expression);
+    }
+
+    @Override
+    public int hashCode() {
+        return expression.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return expression;
+    }
+}
@@ -0,0 +1,261 @@
+package com.human.service;
+
+import com.human.enums.TemplatePlaceholder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Query template parsed once into literal runs and typed placeholder slots.
+ * Follows the StringSubstitutor syntax used by earlier versions: {@code ${name}} placeholders,
+ * {@code $${} escapes and {@code ${name:-default}} defaults. Unknown placeholders are kept verbatim.
+ */
+public final class CompiledTemplate {
+
+    private static final String PREFIX = "${";
+    private static final String ESCAPED_PREFIX = "$${";
+    private static final char SUFFIX = '}';
+    private static final String DEFAULT_DELIMITER = ":-";
+    private static final int MAX_LONG_LENGTH = 20;
+
+    private final String source;
+    private final String[] literals;
+    private final byte[][] literalBytes;
+    private final TemplatePlaceholder[] slots;
+    private final int literalLength;
+    private final int literalByteLength;
+    private final int borderSlotCount;
+    private final int filterSlotCount;
+
+    private CompiledTemplate(String source, List<String> literals, List<TemplatePlaceholder> slots) {
+        this.source = source;
+        this.literals = literals.toArray(new String[0]);
+        this.slots = slots.toArray(new TemplatePlaceholder[0]);
+        this.literalBytes = new byte[this.literals.length][];
+
+        int length = 0;
+        int byteLength = 0;
+        for (int i = 0; i < this.literals.length; i++) {
+            literalBytes[i] = Utf8.toBytes(this.literals[i]);
+            length += this.literals[i].length();
+            byteLength += literalBytes[i].length;
+        }
+        int borders = 0;
+        for (TemplatePlaceholder slot : this.slots) {
+            if (slot.isTimeBorder()) {
+                borders++;
+            }
+        }
+        this.literalLength = length;
+        this.literalByteLength = byteLength;
+        this.borderSlotCount = borders;
+        this.filterSlotCount = this.slots.length - borders;
+    }
+
+    public static CompiledTemplate compile(String template) {
+        if (template == null) {
+            throw new IllegalArgumentException("Template cannot be null");
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<TemplatePlaceholder> slots = new ArrayList<>();
+        StringBuilder literal = new StringBuilder(template.length());
+
+        int i = 0;
+        while (i < template.length()) {
+            if (template.startsWith(ESCAPED_PREFIX, i)) {
+                literal.append(PREFIX);
+                i += ESCAPED_PREFIX.length();
+                continue;
+            }
+            if (!template.startsWith(PREFIX, i)) {
+                literal.append(template.charAt(i++));
+                continue;
+            }
+
+            int end = template.indexOf(SUFFIX, i + PREFIX.length());
+            if (end < 0) {
+                literal.append(template, i, template.length());
+                break;
+            }
+
+            String name = template.substring(i + PREFIX.length(), end);
+            String defaultValue = null;
+            int delimiter = name.indexOf(DEFAULT_DELIMITER);
+            if (delimiter >= 0) {
+                defaultValue = name.substring(delimiter + DEFAULT_DELIMITER.length());
+                name = name.substring(0, delimiter);
+            }
+
+            TemplatePlaceholder placeholder = TemplatePlaceholder.fromKey(name);
+            if (placeholder != null) {
+                literals.add(literal.toString());
+                slots.add(placeholder);
+                literal.setLength(0);
+            } else if (defaultValue != null) {
+                literal.append(defaultValue);
+            } else {
+                literal.append(template, i, end + 1);
+            }
+            i = end + 1;
+        }
+        literals.add(literal.toString());
+
+        return new CompiledTemplate(template, literals, slots);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean isBlank() {
+        return source.trim().isEmpty();
+    }
+
+    public int getSlotCount() {
+        return slots.length;
+    }
+
+    public int estimateLength(String filter) {
+        return estimateLength(CompiledFilter.of(filter));
+    }
+
+    public int estimateLength(CompiledFilter filter) {
+        return estimateLength((FilterBlock) filter);
+    }
+
+    int estimateLength(FilterBlock filter) {
+        int filterLength = filter != null ? filter.getMaxBlockLength() : 0;
+        return literalLength + borderSlotCount * MAX_LONG_LENGTH + filterSlotCount * filterLength;
+    }
+
+    public int maxEncodedLength(String filter) {
+        return maxEncodedLength(CompiledFilter.of(filter));
+    }
+
+    public int maxEncodedLength(CompiledFilter filter) {
+        return maxEncodedLength((FilterBlock) filter);
+    }
+
+    int maxEncodedLength(FilterBlock filter) {
+        int filterLength = filter != null ? filter.getMaxEncodedBlockLength() : 0;
+        return literalByteLength + borderSlotCount * MAX_LONG_LENGTH + filterSlotCount * filterLength;
+    }
+
+    public String render(long leftBorder, long rightBorder, String filter) {
+        return render(leftBorder, rightBorder, CompiledFilter.of(filter));
+    }
+
+    public String render(long leftBorder, long rightBorder, CompiledFilter filter) {
+        return render(leftBorder, rightBorder, (FilterBlock) filter);
+    }
+
+    String render(long leftBorder, long rightBorder, FilterBlock filter) {
+        return appendTo(new StringBuilder(estimateLength(filter)), leftBorder, rightBorder, filter).toString();
+    }
+
+    public StringBuilder appendTo(StringBuilder sb, long leftBorder, long rightBorder, String filter) {
+        return appendTo(sb, leftBorder, rightBorder, CompiledFilter.of(filter));
+    }
+
+    public StringBuilder appendTo(StringBuilder sb, long leftBorder, long rightBorder, CompiledFilter filter) {
+        return appendTo(sb, leftBorder, rightBorder, (FilterBlock) filter);
+    }
+
+    StringBuilder appendTo(StringBuilder sb, long leftBorder, long rightBorder, FilterBlock filter) {
+        sb.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            TemplatePlaceholder slot = slots[i];
+            if (slot.isTimeBorder()) {
+                sb.append(slot == TemplatePlaceholder.TIME_LEFT_BORDER ? leftBorder : rightBorder);
+            } else if (filter != null) {
+                filter.appendBlock(slot, sb);
+            }
+            sb.append(literals[i + 1]);
+        }
+        return sb;
+    }
+
+    public void appendTo(Appendable out, long leftBorder, long rightBorder, String filter) throws IOException {
+        appendTo(out, leftBorder, rightBorder, CompiledFilter.of(filter));
+    }
+
+    public void appendTo(Appendable out, long leftBorder, long rightBorder, CompiledFilter filter) throws IOException {
+        appendTo(out, leftBorder, rightBorder, (FilterBlock) filter);
+    }
+
+    void appendTo(Appendable out, long leftBorder, long rightBorder, FilterBlock filter) throws IOException {
+        if (out instanceof StringBuilder) {
+            appendTo((StringBuilder) out, leftBorder, rightBorder, filter);
+            return;
+        }
+
+        out.append(literals[0]);
+        for (int i = 0; i < slots.length; i++) {
+            TemplatePlaceholder slot = slots[i];
+            if (slot.isTimeBorder()) {
+                Utf8.appendLong(out, slot == TemplatePlaceholder.TIME_LEFT_BORDER ? leftBorder : rightBorder);
+            } else if (filter != null) {
+                filter.appendBlock(slot, out);
+            }
+            out.append(literals[i + 1]);
+        }
+    }
+
+    public void appendTo(CharBuffer out, long leftBorder, long rightBorder, String filter) {
+        appendTo(out, leftBorder, rightBorder, CompiledFilter.of(filter));
+    }
+
+    public void appendTo(CharBuffer out, long leftBorder, long rightBorder, CompiledFilter filter) {
+        appendTo(out, leftBorder, rightBorder, (FilterBlock) filter);
+    }
+
+    void appendTo(CharBuffer out, long leftBorder, long rightBorder, FilterBlock filter) {
+        try {
+            appendTo((Appendable) out, leftBorder, rightBorder, filter);
+        } catch (IOException e) {
+            throw new IllegalStateException("CharBuffer cannot throw IOException", e);
+        }
+    }
+
+    public void encodeTo(ByteBuffer out, long leftBorder, long rightBorder, String filter) {
+        encodeTo(out, leftBorder, rightBorder, CompiledFilter.of(filter));
+    }
+
+    public void encodeTo(ByteBuffer out, long leftBorder, long rightBorder, CompiledFilter filter) {
+        encodeTo(out, leftBorder, rightBorder, (FilterBlock) filter);
+    }
+
+    void encodeTo(ByteBuffer out, long leftBorder, long rightBorder, FilterBlock filter) {
+        out.put(literalBytes[0]);
+        for (int i = 0; i < slots.length; i++) {
+            TemplatePlaceholder slot = slots[i];
+            if (slot.isTimeBorder()) {
+                Utf8.putLong(out, slot == TemplatePlaceholder.TIME_LEFT_BORDER ? leftBorder : rightBorder);
+            } else if (filter != null) {
+                filter.encodeBlock(slot, out);
+            }
+            out.put(literalBytes[i + 1]);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return source.equals(((CompiledTemplate) o).source);
+    }
+
+    @Override
+    public int hashCode() {
+        return source.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+}
@@ -1,23 +1,94 @@
 package com.human.service;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.human.config.BaseUserConfig;
 
 public class FilterApplier {
 
+    private final Map<BaseUserConfig, ResolvedFilters> resolvedFilters = new ConcurrentHashMap<>();
+
     public boolean shouldApplyFilter(BaseUserConfig config) {
         if (config == null || !config.isUsingFilters()) {
             return false;
         }
 
         int probability = config.getFilterApplyProbability();
-        int randomValue = ThreadLocalRandom.current().nextInt(100);
+        int randomValue = RandomProvider.defaultProvider().current().nextInt(100);
         return randomValue <= probability;
     }
 
+    public CompiledFilter selectFilter(FilterPool filterPool, QueryRandom random) {
+        return selectFilter(filterPool, random, SelectionScratch.current(), QueryClock.system().currentTimeSeconds());
+    }
+
+    /**
+     * Same as {@link #selectFilter(FilterPool, QueryRandom)}, sampling with the buffer's scratch instead of the
+     * thread's.
+     */
+    public CompiledFilter selectFilter(FilterPool filterPool, QueryRandom random, QueryResultBuffer buffer) {
+        return selectFilter(filterPool, random, buffer.scratch(), QueryClock.system().currentTimeSeconds());
+    }
+
+    /**
+     * Draws the iteration's filters at its clock time and records them in {@code buffer} by index. Stacked filters
+     * are rendered from their precompiled blocks, so nothing is allocated per call. Returns whether a filter applies.
+     */
+    public boolean applyFilter(FilterPool filterPool, QueryRandom random, QueryResultBuffer buffer, long currentTime) {
+        SelectionScratch scratch = buffer.scratch();
+        int count = sampleFilters(filterPool, random, scratch, currentTime);
+        if (count <= 1) {
+            buffer.setFilter(count == 1 ? filterPool.get(scratch.selected()[0]) : null);
+        } else {
+            buffer.stackFilters(filterPool, scratch.selected(), count);
+        }
+        return count > 0;
+    }
+
+    private CompiledFilter selectFilter(FilterPool filterPool, QueryRandom random, SelectionScratch scratch,
+                                        long currentTime) {
+        int count = sampleFilters(filterPool, random, scratch, currentTime);
+        if (count <= 1) {
+            return count == 1 ? filterPool.get(scratch.selected()[0]) : null;
+        }
+        FilterSelection selection = new FilterSelection();
+        selection.set(filterPool, scratch.selected(), count);
+        return selection.toCompiledFilter();
+    }
+
+    /**
+     * Returns how many filters apply this iteration, with their pool indices at the start of the scratch's
+     * selection array.
+     */
+    private int sampleFilters(FilterPool filterPool, QueryRandom random, SelectionScratch scratch, long currentTime) {
+        if (filterPool == null || !filterPool.isEnabled()) {
+            return 0;
+        }
+
+        if (random.nextInt(100) > filterPool.getApplyProbability()) {
+            return 0;
+        }
+
+        int count = filterPool.getMinFilterCount();
+        if (filterPool.getMaxFilterCount() > count) {
+            count += random.nextInt(filterPool.getMaxFilterCount() - count + 1);
+        }
+
+        IndexSampler sampler = filterPool.getSampler();
+        if (count == 1) {
+            scratch.selectOne(sampler != null
+                    ? sampler.sample(random, currentTime)
+                    : random.nextInt(filterPool.size()));
+        } else {
+            scratch.sample(sampler, filterPool.size(), count, random, currentTime);
+        }
+        return count;
+    }
+
     public String selectFilter(BaseUserConfig config, List<String> availableFilters) {
         if (config == null || availableFilters == null || availableFilters.isEmpty()) {
             return null;
@@ -29,7 +100,7 @@ public class FilterApplier {
             return null;
         }
 
-        int randomIndex = ThreadLocalRandom.current().nextInt(filtersToUse.size());
+        int randomIndex = RandomProvider.defaultProvider().current().nextInt(filtersToUse.size());
         return filtersToUse.get(randomIndex);
     }
 
@@ -47,7 +118,8 @@ public class FilterApplier {
             return Optional.empty();
         }
 
-        if (ThreadLocalRandom.current().nextInt(100) >= config.getFilterApplyProbability()) {
+        QueryRandom random = RandomProvider.defaultProvider().current();
+        if (random.nextInt(100) >= config.getFilterApplyProbability()) {
             return Optional.empty();
         }
 
@@ -56,13 +128,24 @@ public class FilterApplier {
             return Optional.empty();
         }
 
-        String selectedFilter = filtersToUse.get(ThreadLocalRandom.current().nextInt(filtersToUse.size()));
+        String selectedFilter = filtersToUse.get(random.nextInt(filtersToUse.size()));
         return Optional.of(selectedFilter);
     }
 
     private List<String> getFiltersForUser(BaseUserConfig config,
                                            java.util.Map<String, List<String>> allFilters,
                                            String defaultFiltersKey) {
+        ResolvedFilters cached = resolvedFilters.get(config);
+        if (cached == null || cached.source != allFilters || !Objects.equals(cached.defaultFiltersKey, defaultFiltersKey)) {
+            cached = new ResolvedFilters(allFilters, defaultFiltersKey, resolveFiltersForUser(config, allFilters, defaultFiltersKey));
+            resolvedFilters.put(config, cached);
+        }
+        return cached.filters;
+    }
+
+    private List<String> resolveFiltersForUser(BaseUserConfig config,
+                                               java.util.Map<String, List<String>> allFilters,
+                                               String defaultFiltersKey) {
         if (config.hasInlineFilters()) {
             return config.getFilters();
         }
@@ -81,4 +164,16 @@ public class FilterApplier {
         List<String> defaultFilters = allFilters.get(defaultFiltersKey);
         return defaultFilters != null ? defaultFilters : java.util.Collections.emptyList();
     }
+
+    private static final class ResolvedFilters {
+        private final Map<String, List<String>> source;
+        private final String defaultFiltersKey;
+        private final List<String> filters;
+
+        private ResolvedFilters(Map<String, List<String>> source, String defaultFiltersKey, List<String> filters) {
+            this.source = source;
+            this.defaultFiltersKey = defaultFiltersKey;
+            this.filters = filters;
+        }
+    }
 }
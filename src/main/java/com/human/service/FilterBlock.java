@@ -0,0 +1,23 @@
+package com.human.service;
+
+import com.human.enums.TemplatePlaceholder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * What a template substitutes for its filter placeholders: a single {@link CompiledFilter} or the filters stacked
+ * for one iteration ({@link FilterSelection}).
+ */
+interface FilterBlock {
+
+    void appendBlock(TemplatePlaceholder placeholder, StringBuilder out);
+
+    void appendBlock(TemplatePlaceholder placeholder, Appendable out) throws IOException;
+
+    void encodeBlock(TemplatePlaceholder placeholder, ByteBuffer out);
+
+    int getMaxBlockLength();
+
+    int getMaxEncodedBlockLength();
+}
@@ -0,0 +1,97 @@
+package com.human.service;
+
+import com.human.enums.FilterJoin;
+
+import java.util.Collections;
+import java.util.List;
+
+public final class FilterPool {
+
+    public static final FilterPool EMPTY = new FilterPool(Collections.emptyList(), 0, false);
+
+    private final List<String> filters;
+    private final CompiledFilter[] compiledFilters;
+    private final IndexSampler sampler;
+    private final int applyProbability;
+    private final int minFilterCount;
+    private final int maxFilterCount;
+    private final FilterJoin join;
+    private final boolean enabled;
+
+    public FilterPool(List<String> filters, int applyProbability, boolean enabled) {
+        this(filters, null, applyProbability, enabled);
+    }
+
+    public FilterPool(List<String> filters, IndexSampler sampler, int applyProbability, boolean enabled) {
+        this(filters, sampler, applyProbability, 1, 1, FilterJoin.AND, enabled);
+    }
+
+    public FilterPool(List<String> filters, IndexSampler sampler, int applyProbability,
+                      int minFilterCount, int maxFilterCount, FilterJoin join, boolean enabled) {
+        this(filters, compile(filters), sampler, applyProbability, minFilterCount, maxFilterCount, join, enabled);
+    }
+
+    /**
+     * Shares {@code compiledFilters} (compiled from {@code filters}) with other pools over the same list.
+     */
+    FilterPool(List<String> filters, CompiledFilter[] compiledFilters, IndexSampler sampler, int applyProbability,
+               int minFilterCount, int maxFilterCount, FilterJoin join, boolean enabled) {
+        if (sampler != null && sampler.size() != filters.size()) {
+            throw new IllegalArgumentException("Filter sampler size " + sampler.size()
+                    + " does not match filters size " + filters.size());
+        }
+        this.filters = Collections.unmodifiableList(filters);
+        this.compiledFilters = compiledFilters;
+        this.sampler = sampler;
+        this.applyProbability = applyProbability;
+        int available = sampler != null ? sampler.getPositiveCount() : filters.size();
+        this.maxFilterCount = Math.max(1, Math.min(maxFilterCount, available));
+        this.minFilterCount = Math.max(1, Math.min(minFilterCount, this.maxFilterCount));
+        this.join = join;
+        this.enabled = enabled && !filters.isEmpty();
+    }
+
+    static CompiledFilter[] compile(List<String> filters) {
+        CompiledFilter[] compiled = new CompiledFilter[filters.size()];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = CompiledFilter.of(filters.get(i));
+        }
+        return compiled;
+    }
+
+    public List<String> getFilters() {
+        return filters;
+    }
+
+    public int size() {
+        return filters.size();
+    }
+
+    public CompiledFilter get(int index) {
+        return compiledFilters[index];
+    }
+
+    public IndexSampler getSampler() {
+        return sampler;
+    }
+
+    public int getApplyProbability() {
+        return applyProbability;
+    }
+
+    public int getMinFilterCount() {
+        return minFilterCount;
+    }
+
+    public int getMaxFilterCount() {
+        return maxFilterCount;
+    }
+
+    public FilterJoin getJoin() {
+        return join;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
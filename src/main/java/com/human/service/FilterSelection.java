@@ -0,0 +1,129 @@
+package com.human.service;
+
+import com.human.enums.FilterJoin;
+import com.human.enums.TemplatePlaceholder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Several filters drawn for one iteration, written as a single block: the placeholder prefix, each filter's
+ * precompiled {@code (...)} block separated by the join, then the suffix. Owned and reused by a
+ * {@link QueryResultBuffer}, so stacking filters allocates nothing once the array has grown.
+ */
+final class FilterSelection implements FilterBlock {
+
+    private static final TemplatePlaceholder[] PLACEHOLDERS = TemplatePlaceholder.values();
+    private static final byte[][] PREFIXES = new byte[PLACEHOLDERS.length][];
+    private static final byte[] SUFFIX = Utf8.toBytes(TemplatePlaceholder.FILTER_SUFFIX);
+    private static final byte[][] SEPARATORS = new byte[FilterJoin.values().length][];
+    private static final int MAX_PREFIX_LENGTH;
+
+    static {
+        int maxPrefix = 0;
+        for (TemplatePlaceholder placeholder : PLACEHOLDERS) {
+            if (!placeholder.isTimeBorder()) {
+                PREFIXES[placeholder.ordinal()] = Utf8.toBytes(placeholder.getFilterPrefix());
+                maxPrefix = Math.max(maxPrefix, placeholder.getFilterPrefix().length());
+            }
+        }
+        for (FilterJoin join : FilterJoin.values()) {
+            SEPARATORS[join.ordinal()] = Utf8.toBytes(join.getSeparator());
+        }
+        MAX_PREFIX_LENGTH = maxPrefix;
+    }
+
+    private CompiledFilter[] filters = new CompiledFilter[4];
+    private int size;
+    private FilterJoin join = FilterJoin.AND;
+    private int expressionLength;
+    private int encodedExpressionLength;
+
+    void set(FilterPool pool, int[] indices, int count) {
+        clear();
+        if (filters.length < count) {
+            filters = new CompiledFilter[Math.max(count, filters.length * 2)];
+        }
+        join = pool.getJoin();
+        int separators = (count - 1) * join.getSeparator().length();
+        expressionLength = separators;
+        encodedExpressionLength = separators;
+        for (int i = 0; i < count; i++) {
+            CompiledFilter filter = pool.get(indices[i]);
+            filters[i] = filter;
+            expressionLength += filter.getBlock(TemplatePlaceholder.FILTER_BLOCK).length();
+            encodedExpressionLength += filter.getEncodedBlock(TemplatePlaceholder.FILTER_BLOCK).length;
+        }
+        size = count;
+    }
+
+    void clear() {
+        Arrays.fill(filters, 0, size, null);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * The selection as a standalone filter, for results that outlive the buffer.
+     */
+    CompiledFilter toCompiledFilter() {
+        StringBuilder expression = new StringBuilder(expressionLength);
+        appendExpression(expression);
+        return CompiledFilter.of(expression.toString());
+    }
+
+    @Override
+    public void appendBlock(TemplatePlaceholder placeholder, StringBuilder out) {
+        out.append(placeholder.getFilterPrefix());
+        appendExpression(out);
+        out.append(TemplatePlaceholder.FILTER_SUFFIX);
+    }
+
+    @Override
+    public void appendBlock(TemplatePlaceholder placeholder, Appendable out) throws IOException {
+        out.append(placeholder.getFilterPrefix());
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.append(join.getSeparator());
+            }
+            out.append(filters[i].getBlock(TemplatePlaceholder.FILTER_BLOCK));
+        }
+        out.append(TemplatePlaceholder.FILTER_SUFFIX);
+    }
+
+    @Override
+    public void encodeBlock(TemplatePlaceholder placeholder, ByteBuffer out) {
+        out.put(PREFIXES[placeholder.ordinal()]);
+        byte[] separator = SEPARATORS[join.ordinal()];
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.put(separator);
+            }
+            out.put(filters[i].getEncodedBlock(TemplatePlaceholder.FILTER_BLOCK));
+        }
+        out.put(SUFFIX);
+    }
+
+    @Override
+    public int getMaxBlockLength() {
+        return MAX_PREFIX_LENGTH + expressionLength + SUFFIX.length;
+    }
+
+    @Override
+    public int getMaxEncodedBlockLength() {
+        return MAX_PREFIX_LENGTH + encodedExpressionLength + SUFFIX.length;
+    }
+
+    private void appendExpression(StringBuilder out) {
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                out.append(join.getSeparator());
+            }
+            out.append(filters[i].getBlock(TemplatePlaceholder.FILTER_BLOCK));
+        }
+    }
+}
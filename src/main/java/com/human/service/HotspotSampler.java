@@ -0,0 +1,95 @@
+package com.human.service;
+
+/**
+ * Sends {@code hotShare} of draws to a contiguous window of {@code hotCount} indices and spreads the rest uniformly
+ * over the others. With a positive shift interval the window moves forward by its own length every interval, so the
+ * hot set rotates through the whole pool over time. Time comes from the caller (the generator's {@link QueryClock}),
+ * so virtual clocks move the window too; the time-free methods keep it at its starting position.
+ */
+public final class HotspotSampler implements IndexSampler {
+
+    private final int size;
+    private final int hotCount;
+    private final double hotShare;
+    private final long shiftIntervalMillis;
+
+    public HotspotSampler(int size, double hotFraction, double hotShare, long shiftIntervalMillis) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("Hotspot size must be positive: " + size);
+        }
+        if (!(hotFraction > 0 && hotFraction <= 1)) {
+            throw new IllegalArgumentException("hot_fraction must be in (0, 1]: " + hotFraction);
+        }
+        if (!(hotShare >= 0 && hotShare <= 1)) {
+            throw new IllegalArgumentException("hot_share must be in [0, 1]: " + hotShare);
+        }
+        if (shiftIntervalMillis < 0) {
+            throw new IllegalArgumentException("Shift interval cannot be negative: " + shiftIntervalMillis);
+        }
+        this.size = size;
+        this.hotCount = Math.max(1, Math.min(size, (int) Math.round(size * hotFraction)));
+        this.hotShare = hotCount == size ? 1.0 : hotShare;
+        this.shiftIntervalMillis = shiftIntervalMillis;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int sample(QueryRandom random) {
+        return sample(random, 0);
+    }
+
+    @Override
+    public int sample(QueryRandom random, long nowSeconds) {
+        int offset = windowOffset(nowSeconds);
+        int position = random.nextDouble() < hotShare
+                ? random.nextInt(hotCount)
+                : hotCount + random.nextInt(size - hotCount);
+        int index = offset + position;
+        return index >= size ? index - size : index;
+    }
+
+    @Override
+    public int getPositiveCount() {
+        if (hotShare == 1.0) {
+            return hotCount;
+        }
+        return hotShare == 0.0 ? size - hotCount : size;
+    }
+
+    @Override
+    public double getWeight(int index) {
+        return getWeight(index, 0);
+    }
+
+    @Override
+    public double getWeight(int index, long nowSeconds) {
+        int position = index - windowOffset(nowSeconds);
+        if (position < 0) {
+            position += size;
+        }
+        return position < hotCount ? hotShare / hotCount : (1.0 - hotShare) / (size - hotCount);
+    }
+
+    public int getHotCount() {
+        return hotCount;
+    }
+
+    public double getHotShare() {
+        return hotShare;
+    }
+
+    /**
+     * Index of the first hot entry at the given time; the window wraps around the end of the pool.
+     */
+    int windowOffset(long nowSeconds) {
+        if (shiftIntervalMillis == 0) {
+            return 0;
+        }
+        long window = Math.floorDiv(nowSeconds * 1000, shiftIntervalMillis);
+        return (int) Math.floorMod(window * hotCount, (long) size);
+    }
+}
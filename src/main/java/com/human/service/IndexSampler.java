@@ -0,0 +1,32 @@
+package com.human.service;
+
+/**
+ * Draws an index in {@code [0, size())} from a precompiled, possibly non-uniform distribution.
+ */
+public interface IndexSampler {
+
+    int size();
+
+    int sample(QueryRandom random);
+
+    /**
+     * Draw at the iteration's clock time (epoch seconds). Only time-dependent samplers look at it.
+     */
+    default int sample(QueryRandom random, long nowSeconds) {
+        return sample(random);
+    }
+
+    /**
+     * Number of indices that can actually be drawn.
+     */
+    int getPositiveCount();
+
+    /**
+     * Relative, unnormalised weight of an index; zero means it is never drawn.
+     */
+    double getWeight(int index);
+
+    default double getWeight(int index, long nowSeconds) {
+        return getWeight(index);
+    }
+}
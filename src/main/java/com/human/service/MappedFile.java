@@ -0,0 +1,94 @@
+package com.human.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only file mapped in 1 GiB segments, so files over 2 GiB can be addressed with a long position. Only absolute
+ * reads are used, which makes it safe to share between threads. Aligned longs and ints never straddle a segment;
+ * byte ranges that do are copied piecewise.
+ */
+final class MappedFile {
+
+    private static final int SEGMENT_SHIFT = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_SHIFT;
+    private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    private MappedFile(MappedByteBuffer[] segments, long size) {
+        this.segments = segments;
+        this.size = size;
+    }
+
+    static MappedFile map(Path path, ByteOrder order) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_SHIFT);
+            MappedByteBuffer[] segments = new MappedByteBuffer[Math.max(count, 1)];
+            for (int i = 0; i < count; i++) {
+                long start = (long) i << SEGMENT_SHIFT;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+                segments[i].order(order);
+            }
+            if (count == 0) {
+                segments[0] = channel.map(FileChannel.MapMode.READ_ONLY, 0, 0);
+            }
+            return new MappedFile(segments, size);
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    long getLong(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].getLong((int) (position & SEGMENT_MASK));
+    }
+
+    int getInt(long position) {
+        return segments[(int) (position >>> SEGMENT_SHIFT)].getInt((int) (position & SEGMENT_MASK));
+    }
+
+    void copyTo(long position, int length, ByteBuffer out) {
+        while (length > 0) {
+            ByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)].duplicate();
+            int offset = (int) (position & SEGMENT_MASK);
+            int chunk = Math.min(length, segment.capacity() - offset);
+            segment.limit(offset + chunk).position(offset);
+            out.put(segment);
+            position += chunk;
+            length -= chunk;
+        }
+    }
+
+    /**
+     * Read-only view of the range, sharing the mapping unless the range straddles two segments.
+     */
+    ByteBuffer slice(long position, int length) {
+        int offset = (int) (position & SEGMENT_MASK);
+        MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_SHIFT)];
+        if (offset + length <= segment.capacity()) {
+            ByteBuffer view = segment.asReadOnlyBuffer();
+            view.limit(offset + length).position(offset);
+            return view.slice();
+        }
+        ByteBuffer copy = ByteBuffer.allocate(length);
+        copyTo(position, length, copy);
+        copy.flip();
+        return copy.asReadOnlyBuffer();
+    }
+
+    String decode(long position, int length) {
+        byte[] bytes = new byte[length];
+        copyTo(position, length, ByteBuffer.wrap(bytes));
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,265 @@
+package com.human.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Query pool over a memory-mapped UTF-8 corpus with one query per line. Blank lines are skipped and a trailing
+ * {@code \r} is dropped, matching the {@code .txt} list format. Line positions live in an index file next to the
+ * corpus, built on first use and reused while the corpus size and modification time are unchanged, so neither the
+ * corpus nor its index is held on the heap. Templates are compiled on demand; a small direct-mapped cache keeps hot
+ * entries (Zipf and hotspot distributions) from being recompiled on every draw.
+ * <pre>
+ * index (little-endian)
+ *   int  magic, int version
+ *   long corpus size, long corpus modification time (millis), long query count
+ *   count x long (start offset &lt;&lt; 24 | length in bytes), so corpora up to 1 TiB and queries up to 16 MiB
+ * </pre>
+ */
+public final class MappedQueryPool implements QueryPool {
+
+    static final int MAGIC = 0x31495143;
+    static final int VERSION = 1;
+    static final ByteOrder ORDER = ByteOrder.LITTLE_ENDIAN;
+    static final String INDEX_SUFFIX = ".idx";
+
+    static final int HEADER_SIZE = 32;
+    static final int MAGIC_OFFSET = 0;
+    static final int VERSION_OFFSET = 4;
+    static final int SOURCE_SIZE_OFFSET = 8;
+    static final int SOURCE_MODIFIED_OFFSET = 16;
+    static final int COUNT_OFFSET = 24;
+
+    static final int LENGTH_BITS = 24;
+    static final int MAX_QUERY_LENGTH = (1 << LENGTH_BITS) - 1;
+
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final int CACHE_SIZE = 4096;
+
+    private final Path corpusPath;
+    private final MappedFile corpus;
+    private final MappedFile index;
+    private final int size;
+    private final CachedTemplate[] cache = new CachedTemplate[CACHE_SIZE];
+
+    private MappedQueryPool(Path corpusPath, MappedFile corpus, MappedFile index, int size) {
+        this.corpusPath = corpusPath;
+        this.corpus = corpus;
+        this.index = index;
+        this.size = size;
+    }
+
+    /**
+     * Maps the corpus and its index, building the index first if it is missing or stale.
+     */
+    public static MappedQueryPool open(Path corpusPath) throws IOException {
+        if (corpusPath == null) {
+            throw new IllegalArgumentException("Corpus path cannot be null");
+        }
+        long sourceSize = Files.size(corpusPath);
+        long sourceModified = Files.getLastModifiedTime(corpusPath).toMillis();
+
+        Path indexPath = indexPath(corpusPath);
+        MappedFile index = Files.isRegularFile(indexPath) && Files.size(indexPath) >= HEADER_SIZE
+                ? MappedFile.map(indexPath, ORDER)
+                : null;
+        if (index == null || !matches(index, sourceSize, sourceModified)) {
+            buildIndex(corpusPath, indexPath, sourceSize, sourceModified);
+            index = MappedFile.map(indexPath, ORDER);
+        }
+
+        long count = index.getLong(COUNT_OFFSET);
+        if (count > Integer.MAX_VALUE || HEADER_SIZE + count * Long.BYTES > index.size()) {
+            throw new IOException("Corrupt query corpus index: " + indexPath);
+        }
+        return new MappedQueryPool(corpusPath, MappedFile.map(corpusPath, ORDER), index, (int) count);
+    }
+
+    public static Path indexPath(Path corpusPath) {
+        return corpusPath.resolveSibling(corpusPath.getFileName() + INDEX_SUFFIX);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public CompiledTemplate get(int index) {
+        int slot = index & (CACHE_SIZE - 1);
+        CachedTemplate cached = cache[slot];
+        if (cached != null && cached.index == index) {
+            return cached.template;
+        }
+        CompiledTemplate template = CompiledTemplate.compile(getQuery(index));
+        // Racy but safe: entries are immutable and a lost update only costs a recompile.
+        cache[slot] = new CachedTemplate(index, template);
+        return template;
+    }
+
+    @Override
+    public String getQuery(int index) {
+        long entry = entry(index);
+        return corpus.decode(entry >>> LENGTH_BITS, (int) (entry & MAX_QUERY_LENGTH));
+    }
+
+    public int getQueryLength(int index) {
+        return (int) (entry(index) & MAX_QUERY_LENGTH);
+    }
+
+    /**
+     * Copies the UTF-8 bytes of the query straight from the mapping, without decoding.
+     */
+    public void copyQuery(int index, ByteBuffer out) {
+        long entry = entry(index);
+        corpus.copyTo(entry >>> LENGTH_BITS, (int) (entry & MAX_QUERY_LENGTH), out);
+    }
+
+    public Path getCorpusPath() {
+        return corpusPath;
+    }
+
+    private long entry(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Query index " + index + " out of range [0, " + size + ")");
+        }
+        return this.index.getLong(HEADER_SIZE + (long) index * Long.BYTES);
+    }
+
+    private static boolean matches(MappedFile index, long sourceSize, long sourceModified) {
+        return index.getInt(MAGIC_OFFSET) == MAGIC
+                && index.getInt(VERSION_OFFSET) == VERSION
+                && index.getLong(SOURCE_SIZE_OFFSET) == sourceSize
+                && index.getLong(SOURCE_MODIFIED_OFFSET) == sourceModified;
+    }
+
+    /**
+     * Scans the corpus once and writes the index to a temporary file that replaces the old index when complete, so
+     * concurrent readers never see a partial index.
+     */
+    private static void buildIndex(Path corpusPath, Path indexPath, long sourceSize, long sourceModified)
+            throws IOException {
+        Path directory = indexPath.toAbsolutePath().getParent();
+        Path tmp = Files.createTempFile(directory, indexPath.getFileName().toString(), ".tmp");
+        try {
+            long count;
+            try (FileChannel source = FileChannel.open(corpusPath, StandardOpenOption.READ);
+                 FileChannel output = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+                ByteBuffer in = ByteBuffer.allocateDirect(BUFFER_SIZE);
+                ByteBuffer out = ByteBuffer.allocateDirect(BUFFER_SIZE).order(ORDER);
+                output.position(HEADER_SIZE);
+
+                LineScanner scanner = new LineScanner(corpusPath, out, output);
+                long position = 0;
+                while (source.read(in) > 0) {
+                    in.flip();
+                    while (in.hasRemaining()) {
+                        scanner.accept(in.get(), position++);
+                    }
+                    in.clear();
+                }
+                scanner.finish(position);
+                flush(out, output);
+                count = scanner.count;
+
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ORDER);
+                header.putInt(MAGIC).putInt(VERSION).putLong(sourceSize).putLong(sourceModified).putLong(count);
+                header.flip();
+                while (header.hasRemaining()) {
+                    output.write(header, header.position());
+                }
+                output.force(false);
+            }
+            if (count > Integer.MAX_VALUE) {
+                throw new IOException("Query corpus has more than " + Integer.MAX_VALUE + " queries: " + corpusPath);
+            }
+            try {
+                Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, indexPath, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private static void flush(ByteBuffer buffer, FileChannel channel) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Tracks the current line; a line is blank when every byte is ASCII whitespace or control, which in UTF-8 is
+     * exactly what {@link String#trim()} removes.
+     */
+    private static final class LineScanner {
+
+        private final Path corpusPath;
+        private final ByteBuffer out;
+        private final FileChannel output;
+        private long lineStart;
+        private boolean blank = true;
+        private byte previous;
+        private long count;
+
+        LineScanner(Path corpusPath, ByteBuffer out, FileChannel output) {
+            this.corpusPath = corpusPath;
+            this.out = out;
+            this.output = output;
+        }
+
+        void accept(byte b, long position) throws IOException {
+            if (b == '\n') {
+                endLine(previous == '\r' ? position - 1 : position);
+                lineStart = position + 1;
+                blank = true;
+            } else if ((b & 0xFF) > ' ') {
+                blank = false;
+            }
+            previous = b;
+        }
+
+        void finish(long end) throws IOException {
+            if (end > lineStart) {
+                endLine(previous == '\r' ? end - 1 : end);
+            }
+        }
+
+        private void endLine(long end) throws IOException {
+            if (blank) {
+                return;
+            }
+            long length = end - lineStart;
+            if (length > MAX_QUERY_LENGTH) {
+                throw new IOException("Query at byte " + lineStart + " of " + corpusPath + " is longer than "
+                        + MAX_QUERY_LENGTH + " bytes");
+            }
+            if (!out.hasRemaining()) {
+                flush(out, output);
+            }
+            out.putLong(lineStart << LENGTH_BITS | length);
+            count++;
+        }
+    }
+
+    private static final class CachedTemplate {
+
+        final int index;
+        final CompiledTemplate template;
+
+        CachedTemplate(int index, CompiledTemplate template) {
+            this.index = index;
+            this.template = template;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.human.service;
+
+import com.human.config.RandomQueryConfig;
+import com.human.enums.SelectionMode;
+
+public final class PagePlan {
+
+    private final String name;
+    private final RandomQueryConfig queryConfig;
+    private final QueryPool queryPool;
+    private final IndexSampler querySampler;
+    private final SelectionMode selectionMode;
+    private final int selectionCount;
+    private final String label;
+    private final String filteredLabel;
+
+    public PagePlan(String name, RandomQueryConfig queryConfig, String label) {
+        this.name = name;
+        this.queryConfig = queryConfig;
+        this.queryPool = queryConfig.getQueryPool();
+        this.querySampler = queryConfig.getQuerySampler();
+        this.selectionMode = selectionMode(queryConfig);
+        this.selectionCount = selectionCount(queryConfig, queryPool.size());
+        this.label = label;
+        this.filteredLabel = label + " with filter";
+    }
+
+    static SelectionMode selectionMode(RandomQueryConfig queryConfig) {
+        if (queryConfig.isAllSelectEnabled()) {
+            return SelectionMode.ALL;
+        }
+        return queryConfig.isRandomSelectionEnabled() ? SelectionMode.RANDOM : SelectionMode.FIRST;
+    }
+
+    public static int selectionCount(RandomQueryConfig queryConfig, int poolSize) {
+        switch (selectionMode(queryConfig)) {
+            case ALL:
+                return poolSize;
+            case FIRST:
+                return Math.max(0, Math.min(queryConfig.getMinSelectedQueries(), poolSize));
+            default:
+                int maxCount = Math.max(
+                        queryConfig.getMinSelectedQueries(),
+                        (poolSize * queryConfig.getMaxCountSelectedInPercent()) / 100
+                );
+                IndexSampler sampler = queryConfig.getQuerySampler();
+                int available = sampler != null ? sampler.getPositiveCount() : poolSize;
+                return Math.max(0, Math.min(maxCount, available));
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RandomQueryConfig getQueryConfig() {
+        return queryConfig;
+    }
+
+    public QueryPool getQueryPool() {
+        return queryPool;
+    }
+
+    public IndexSampler getQuerySampler() {
+        return querySampler;
+    }
+
+    public double getWeight() {
+        return queryConfig.getWeight();
+    }
+
+    public SelectionMode getSelectionMode() {
+        return selectionMode;
+    }
+
+    public int getSelectionCount() {
+        return selectionCount;
+    }
+
+    public String getLabel(boolean filterApplied) {
+        return filterApplied ? filteredLabel : label;
+    }
+}
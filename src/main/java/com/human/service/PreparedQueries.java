@@ -0,0 +1,93 @@
+package com.human.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class PreparedQueries {
+    private final List<CompiledTemplate> templates;
+    private final String userType;
+    private final String userName;
+    private final String timePeriodName;
+    private final CompiledFilter appliedFilter;
+    private final long timeLeftBorder;
+    private final long timeRightBorder;
+
+    public PreparedQueries(List<CompiledTemplate> templates, String userType, String userName, String timePeriodName,
+                           CompiledFilter appliedFilter, long timeLeftBorder, long timeRightBorder) {
+        this.templates = Collections.unmodifiableList(templates);
+        this.userType = userType;
+        this.userName = userName;
+        this.timePeriodName = timePeriodName;
+        this.appliedFilter = appliedFilter;
+        this.timeLeftBorder = timeLeftBorder;
+        this.timeRightBorder = timeRightBorder;
+    }
+
+    public int size() {
+        return templates.size();
+    }
+
+    public List<CompiledTemplate> getTemplates() {
+        return templates;
+    }
+
+    public String render(int index) {
+        return templates.get(index).render(timeLeftBorder, timeRightBorder, appliedFilter);
+    }
+
+    public void renderTo(int index, Appendable out) throws IOException {
+        templates.get(index).appendTo(out, timeLeftBorder, timeRightBorder, appliedFilter);
+    }
+
+    public void renderTo(int index, CharBuffer out) {
+        templates.get(index).appendTo(out, timeLeftBorder, timeRightBorder, appliedFilter);
+    }
+
+    public void encodeTo(int index, ByteBuffer out) {
+        templates.get(index).encodeTo(out, timeLeftBorder, timeRightBorder, appliedFilter);
+    }
+
+    public int maxEncodedLength(int index) {
+        return templates.get(index).maxEncodedLength(appliedFilter);
+    }
+
+    public QueryResult toQueryResult() {
+        List<String> queries = new ArrayList<>(templates.size());
+        for (int i = 0; i < templates.size(); i++) {
+            queries.add(render(i));
+        }
+        return new QueryResult(queries, userType, userName, timePeriodName, getAppliedFilter(), timeLeftBorder, timeRightBorder);
+    }
+
+    public String getUserType() {
+        return userType;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getTimePeriodName() {
+        return timePeriodName;
+    }
+
+    public String getAppliedFilter() {
+        return appliedFilter != null ? appliedFilter.getExpression() : null;
+    }
+
+    public CompiledFilter getCompiledFilter() {
+        return appliedFilter;
+    }
+
+    public long getTimeLeftBorder() {
+        return timeLeftBorder;
+    }
+
+    public long getTimeRightBorder() {
+        return timeRightBorder;
+    }
+}
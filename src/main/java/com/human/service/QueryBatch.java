@@ -0,0 +1,178 @@
+package com.human.service;
+
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Column-oriented block of generated iterations. Record {@code r} keeps its borders, virtual user and user, page,
+ * time period and filter ids in parallel arrays; its queries are {@code queryOffsets[r]} to
+ * {@code queryOffsets[r + 1]} in the query columns, and the text of query {@code q} is
+ * {@code text[textOffsets[q]..textOffsets[q + 1])}. Ids index the batch's own dictionaries; a filter id of
+ * {@code -1} means no filter. The array getters return the backing arrays, which callers must not modify.
+ */
+public final class QueryBatch {
+
+    public static final int NO_FILTER = -1;
+
+    private final int size;
+    private final long[] leftBorders;
+    private final long[] rightBorders;
+    private final int[] virtualUsers;
+    private final int[] userIds;
+    private final int[] pageIds;
+    private final int[] periodIds;
+    private final int[] filterIds;
+    private final int[] queryOffsets;
+    private final int[] templateIds;
+    private final int[] textOffsets;
+    private final char[] text;
+
+    private final UserHandle[] users;
+    private final PagePlan[] pages;
+    private final String[] periods;
+    private final CompiledFilter[] filters;
+    private final CompiledTemplate[] templates;
+
+    QueryBatch(int size, long[] leftBorders, long[] rightBorders, int[] virtualUsers, int[] userIds, int[] pageIds,
+               int[] periodIds, int[] filterIds, int[] queryOffsets, int[] templateIds, int[] textOffsets, char[] text,
+               UserHandle[] users, PagePlan[] pages, String[] periods, CompiledFilter[] filters,
+               CompiledTemplate[] templates) {
+        this.size = size;
+        this.leftBorders = leftBorders;
+        this.rightBorders = rightBorders;
+        this.virtualUsers = virtualUsers;
+        this.userIds = userIds;
+        this.pageIds = pageIds;
+        this.periodIds = periodIds;
+        this.filterIds = filterIds;
+        this.queryOffsets = queryOffsets;
+        this.templateIds = templateIds;
+        this.textOffsets = textOffsets;
+        this.text = text;
+        this.users = users;
+        this.pages = pages;
+        this.periods = periods;
+        this.filters = filters;
+        this.templates = templates;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getQueryCount() {
+        return queryOffsets[size];
+    }
+
+    public int getQueryCount(int record) {
+        return queryOffsets[record + 1] - queryOffsets[record];
+    }
+
+    public int getTextLength() {
+        return textOffsets[getQueryCount()];
+    }
+
+    public long[] getLeftBorders() {
+        return leftBorders;
+    }
+
+    public long[] getRightBorders() {
+        return rightBorders;
+    }
+
+    public int[] getVirtualUsers() {
+        return virtualUsers;
+    }
+
+    public int[] getUserIds() {
+        return userIds;
+    }
+
+    public int[] getPageIds() {
+        return pageIds;
+    }
+
+    public int[] getPeriodIds() {
+        return periodIds;
+    }
+
+    public int[] getFilterIds() {
+        return filterIds;
+    }
+
+    public int[] getQueryOffsets() {
+        return queryOffsets;
+    }
+
+    public int[] getTemplateIds() {
+        return templateIds;
+    }
+
+    public int[] getTextOffsets() {
+        return textOffsets;
+    }
+
+    public char[] getText() {
+        return text;
+    }
+
+    public UserHandle getUser(int userId) {
+        return users[userId];
+    }
+
+    public int getUserCount() {
+        return users.length;
+    }
+
+    public PagePlan getPage(int pageId) {
+        return pages[pageId];
+    }
+
+    public int getPageCount() {
+        return pages.length;
+    }
+
+    public String getTimePeriodName(int periodId) {
+        return periods[periodId];
+    }
+
+    public int getTimePeriodCount() {
+        return periods.length;
+    }
+
+    public CompiledFilter getFilter(int filterId) {
+        return filterId == NO_FILTER ? null : filters[filterId];
+    }
+
+    public int getFilterCount() {
+        return filters.length;
+    }
+
+    public CompiledTemplate getTemplate(int templateId) {
+        return templates[templateId];
+    }
+
+    public int getTemplateCount() {
+        return templates.length;
+    }
+
+    public CharSequence getQuery(int query) {
+        return CharBuffer.wrap(text, textOffsets[query], textOffsets[query + 1] - textOffsets[query]);
+    }
+
+    public StringBuilder appendQuery(int query, StringBuilder sb) {
+        return sb.append(text, textOffsets[query], textOffsets[query + 1] - textOffsets[query]);
+    }
+
+    public QueryResult toQueryResult(int record) {
+        List<String> queries = new ArrayList<>(getQueryCount(record));
+        for (int q = queryOffsets[record]; q < queryOffsets[record + 1]; q++) {
+            queries.add(new String(text, textOffsets[q], textOffsets[q + 1] - textOffsets[q]));
+        }
+        CompiledFilter filter = getFilter(filterIds[record]);
+        return new QueryResult(queries, users[userIds[record]].getUserType().toString(),
+                pages[pageIds[record]].getLabel(filter != null), periods[periodIds[record]],
+                filter != null ? filter.getExpression() : null, leftBorders[record], rightBorders[record]);
+    }
+}
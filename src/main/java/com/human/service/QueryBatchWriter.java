@@ -0,0 +1,204 @@
+package com.human.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Appends iterations to growing column arrays and assigns dictionary ids, then freezes them into a {@link QueryBatch}.
+ * Not thread-safe; parallel generation fills one writer per task and concatenates the parts.
+ */
+public final class QueryBatchWriter {
+
+    private int size;
+    private long[] leftBorders;
+    private long[] rightBorders;
+    private int[] virtualUsers;
+    private int[] userIds;
+    private int[] pageIds;
+    private int[] periodIds;
+    private int[] filterIds;
+    private int[] queryOffsets;
+
+    private int queryCount;
+    private int[] templateIds;
+    private int[] textOffsets;
+    private final StringBuilder text;
+
+    private final Dictionary<UserHandle> users = new Dictionary<>(new IdentityHashMap<>());
+    private final Dictionary<PagePlan> pages = new Dictionary<>(new IdentityHashMap<>());
+    private final Dictionary<String> periods = new Dictionary<>(new HashMap<>());
+    private final Dictionary<CompiledFilter> filters = new Dictionary<>(new HashMap<>());
+    private final Dictionary<CompiledTemplate> templates = new Dictionary<>(new IdentityHashMap<>());
+
+    public QueryBatchWriter(int expectedRecords) {
+        int records = Math.max(expectedRecords, 16);
+        this.leftBorders = new long[records];
+        this.rightBorders = new long[records];
+        this.virtualUsers = new int[records];
+        this.userIds = new int[records];
+        this.pageIds = new int[records];
+        this.periodIds = new int[records];
+        this.filterIds = new int[records];
+        this.queryOffsets = new int[records + 1];
+        this.templateIds = new int[records];
+        this.textOffsets = new int[records + 1];
+        this.text = new StringBuilder((int) Math.min(records * 128L, 1 << 24));
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Appends the iteration held by {@code buffer}, rendering its queries straight into the shared text column.
+     */
+    public void append(int virtualUser, QueryResultBuffer buffer) {
+        if (buffer.getUser() == null || buffer.getPage() == null) {
+            throw new IllegalArgumentException("Buffer does not hold a generated iteration");
+        }
+        ensureRecordCapacity(size + 1);
+        ensureQueryCapacity(queryCount + buffer.size());
+
+        leftBorders[size] = buffer.getTimeLeftBorder();
+        rightBorders[size] = buffer.getTimeRightBorder();
+        virtualUsers[size] = virtualUser;
+        userIds[size] = users.id(buffer.getUser());
+        pageIds[size] = pages.id(buffer.getPage());
+        periodIds[size] = periods.id(buffer.getTimePeriodName());
+        CompiledFilter filter = buffer.getCompiledFilter();
+        filterIds[size] = filter != null ? filters.id(filter) : QueryBatch.NO_FILTER;
+
+        for (int i = 0; i < buffer.size(); i++) {
+            CompiledTemplate template = buffer.getTemplate(i);
+            templateIds[queryCount] = templates.id(template);
+            template.appendTo(text, buffer.getTimeLeftBorder(), buffer.getTimeRightBorder(), filter);
+            textOffsets[++queryCount] = text.length();
+        }
+        queryOffsets[++size] = queryCount;
+    }
+
+    /**
+     * Appends every record of {@code batch}, remapping its dictionary ids onto this writer's.
+     */
+    public void append(QueryBatch batch) {
+        int[] userMap = remap(batch.getUserCount(), users, batch::getUser);
+        int[] pageMap = remap(batch.getPageCount(), pages, batch::getPage);
+        int[] periodMap = remap(batch.getTimePeriodCount(), periods, batch::getTimePeriodName);
+        int[] filterMap = remap(batch.getFilterCount(), filters, batch::getFilter);
+        int[] templateMap = remap(batch.getTemplateCount(), templates, batch::getTemplate);
+
+        int records = batch.size();
+        int queries = batch.getQueryCount();
+        ensureRecordCapacity(size + records);
+        ensureQueryCapacity(queryCount + queries);
+
+        System.arraycopy(batch.getLeftBorders(), 0, leftBorders, size, records);
+        System.arraycopy(batch.getRightBorders(), 0, rightBorders, size, records);
+        System.arraycopy(batch.getVirtualUsers(), 0, virtualUsers, size, records);
+        int[] sourceQueryOffsets = batch.getQueryOffsets();
+        for (int r = 0; r < records; r++) {
+            userIds[size + r] = userMap[batch.getUserIds()[r]];
+            pageIds[size + r] = pageMap[batch.getPageIds()[r]];
+            periodIds[size + r] = periodMap[batch.getPeriodIds()[r]];
+            int filterId = batch.getFilterIds()[r];
+            filterIds[size + r] = filterId == QueryBatch.NO_FILTER ? QueryBatch.NO_FILTER : filterMap[filterId];
+            queryOffsets[size + r + 1] = queryCount + sourceQueryOffsets[r + 1];
+        }
+
+        int textBase = text.length();
+        int[] sourceTextOffsets = batch.getTextOffsets();
+        for (int q = 0; q < queries; q++) {
+            templateIds[queryCount + q] = templateMap[batch.getTemplateIds()[q]];
+            textOffsets[queryCount + q + 1] = textBase + sourceTextOffsets[q + 1];
+        }
+        text.append(batch.getText(), 0, batch.getTextLength());
+
+        size += records;
+        queryCount += queries;
+    }
+
+    public QueryBatch build() {
+        char[] chars = new char[text.length()];
+        text.getChars(0, chars.length, chars, 0);
+        return new QueryBatch(size,
+                Arrays.copyOf(leftBorders, size),
+                Arrays.copyOf(rightBorders, size),
+                Arrays.copyOf(virtualUsers, size),
+                Arrays.copyOf(userIds, size),
+                Arrays.copyOf(pageIds, size),
+                Arrays.copyOf(periodIds, size),
+                Arrays.copyOf(filterIds, size),
+                Arrays.copyOf(queryOffsets, size + 1),
+                Arrays.copyOf(templateIds, queryCount),
+                Arrays.copyOf(textOffsets, queryCount + 1),
+                chars,
+                users.values(new UserHandle[0]),
+                pages.values(new PagePlan[0]),
+                periods.values(new String[0]),
+                filters.values(new CompiledFilter[0]),
+                templates.values(new CompiledTemplate[0]));
+    }
+
+    private void ensureRecordCapacity(int records) {
+        if (records <= leftBorders.length) {
+            return;
+        }
+        int capacity = Math.max(records, leftBorders.length * 2);
+        leftBorders = Arrays.copyOf(leftBorders, capacity);
+        rightBorders = Arrays.copyOf(rightBorders, capacity);
+        virtualUsers = Arrays.copyOf(virtualUsers, capacity);
+        userIds = Arrays.copyOf(userIds, capacity);
+        pageIds = Arrays.copyOf(pageIds, capacity);
+        periodIds = Arrays.copyOf(periodIds, capacity);
+        filterIds = Arrays.copyOf(filterIds, capacity);
+        queryOffsets = Arrays.copyOf(queryOffsets, capacity + 1);
+    }
+
+    private void ensureQueryCapacity(int queries) {
+        if (queries <= templateIds.length) {
+            return;
+        }
+        int capacity = Math.max(queries, templateIds.length * 2);
+        templateIds = Arrays.copyOf(templateIds, capacity);
+        textOffsets = Arrays.copyOf(textOffsets, capacity + 1);
+    }
+
+    private static <T> int[] remap(int count, Dictionary<T> dictionary, IntFunction<T> source) {
+        int[] map = new int[count];
+        for (int i = 0; i < count; i++) {
+            map[i] = dictionary.id(source.apply(i));
+        }
+        return map;
+    }
+
+    private static final class Dictionary<T> {
+        private final Map<T, Integer> ids;
+        private Object[] values = new Object[16];
+
+        private Dictionary(Map<T, Integer> ids) {
+            this.ids = ids;
+        }
+
+        private int id(T value) {
+            Integer id = ids.get(value);
+            if (id != null) {
+                return id;
+            }
+            int next = ids.size();
+            if (next == values.length) {
+                values = Arrays.copyOf(values, next * 2);
+            }
+            values[next] = value;
+            ids.put(value, next);
+            return next;
+        }
+
+        @SuppressWarnings("unchecked")
+        private T[] values(T[] type) {
+            return (T[]) Arrays.copyOf(values, ids.size(), type.getClass());
+        }
+    }
+}
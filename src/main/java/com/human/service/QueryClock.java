@@ -0,0 +1,38 @@
+package com.human.service;
+
+/**
+ * Source of "now" (epoch seconds) for time border computation. The generator reads it once per iteration.
+ */
+public interface QueryClock {
+
+    long currentTimeSeconds();
+
+    static QueryClock system() {
+        return () -> System.currentTimeMillis() / 1000;
+    }
+
+    /**
+     * Shared clock ticked once per second by a single daemon thread; reading it is a volatile load.
+     */
+    static QueryClock cached() {
+        return CachedClock.shared();
+    }
+
+    static QueryClock fixed(long epochSecond) {
+        return () -> epochSecond;
+    }
+
+    /**
+     * Starts at {@code startEpochSecond} and runs {@code speed} times faster than real time.
+     */
+    static QueryClock accelerated(long startEpochSecond, double speed) {
+        return VirtualClock.accelerated(startEpochSecond, speed);
+    }
+
+    /**
+     * Starts at {@code startEpochSecond} and moves {@code stepSeconds} forward on every read, i.e. per iteration.
+     */
+    static QueryClock stepping(long startEpochSecond, long stepSeconds) {
+        return VirtualClock.stepping(startEpochSecond, stepSeconds);
+    }
+}
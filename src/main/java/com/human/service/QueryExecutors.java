@@ -0,0 +1,44 @@
+package com.human.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for the asynchronous generation methods. This is the Java 8 implementation; the multi-release JAR
+ * replaces it on Java 21+ with one that runs every task on its own virtual thread.
+ */
+public final class QueryExecutors {
+
+    private static final AtomicInteger THREAD_IDS = new AtomicInteger();
+
+    private QueryExecutors() {
+    }
+
+    /**
+     * Executor the async methods use when none is given: the common fork-join pool.
+     */
+    public static Executor defaultExecutor() {
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * New executor that runs every task on a thread of its own, reusing idle daemon threads. Shut it down when done.
+     */
+    public static ExecutorService newThreadPerTaskExecutor() {
+        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                task -> {
+                    Thread thread = new Thread(task, "querycraft-async-" + THREAD_IDS.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public static boolean isVirtualThreadsAvailable() {
+        return false;
+    }
+}
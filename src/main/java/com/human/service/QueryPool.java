@@ -0,0 +1,15 @@
+package com.human.service;
+
+public interface QueryPool {
+
+    int size();
+
+    CompiledTemplate get(int index);
+
+    /**
+     * Source text of the query at the index, for pools that can supply it without compiling the template.
+     */
+    default String getQuery(int index) {
+        return get(index).getSource();
+    }
+}
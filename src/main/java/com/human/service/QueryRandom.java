@@ -0,0 +1,12 @@
+package com.human.service;
+
+public interface QueryRandom {
+
+    int nextInt(int bound);
+
+    long nextLong(long origin, long bound);
+
+    double nextDouble();
+
+    QueryRandom split();
+}
@@ -56,7 +56,7 @@ public class QueryResult {
     }
 
     public String getFormattedTimeRange() {
-        return String.format("%d-%d", timeLeftBorder, timeRightBorder);
+        return timeLeftBorder + "-" + timeRightBorder;
     }
 
     public boolean hasFilter() {
@@ -67,7 +67,16 @@ public class QueryResult {
         if (userType == null) {
             return "unknown";
         }
-        return userType.toLowerCase().contains("dashboard") ? "dashboard" : "query";
+        return containsIgnoreCase(userType, "dashboard") ? "dashboard" : "query";
+    }
+
+    private static boolean containsIgnoreCase(String value, String part) {
+        for (int i = 0; i + part.length() <= value.length(); i++) {
+            if (value.regionMatches(true, i, part, 0, part.length())) {
+                return true;
+            }
+        }
+        return false;
     }
 
     public String getFirstQuery() {
@@ -0,0 +1,273 @@
+package com.human.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Caller-owned, reusable result of one iteration. {@code QueryGenerator.generateInto} overwrites it in place: the
+ * template array and query builders only grow, labels are shared references and the borders are primitives, so
+ * once the buffer has warmed up a generation allocates nothing. Not thread-safe; keep one buffer per thread.
+ */
+public final class QueryResultBuffer {
+
+    private static final int DEFAULT_CAPACITY = 8;
+    private static final int DEFAULT_QUERY_CAPACITY = 256;
+
+    private CompiledTemplate[] templates;
+    private StringBuilder[] queries;
+    private int size;
+    private boolean rendered;
+
+    private UserHandle user;
+    private PagePlan page;
+    private String userType;
+    private String userName;
+    private String timePeriodName;
+    private CompiledFilter appliedFilter;
+    private FilterSelection stackedFilters;
+    private boolean stacked;
+    private final long[] borders = new long[2];
+    private SelectionScratch scratch;
+
+    public QueryResultBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public QueryResultBuffer(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative: " + capacity);
+        }
+        this.templates = new CompiledTemplate[capacity];
+        this.queries = new StringBuilder[capacity];
+    }
+
+    public void clear() {
+        for (int i = 0; i < size; i++) {
+            templates[i] = null;
+        }
+        size = 0;
+        rendered = false;
+        user = null;
+        page = null;
+        userType = null;
+        userName = null;
+        timePeriodName = null;
+        appliedFilter = null;
+        if (stacked) {
+            stackedFilters.clear();
+            stacked = false;
+        }
+        borders[0] = 0;
+        borders[1] = 0;
+    }
+
+    /**
+     * Resets the buffer for {@code count} templates and returns the array they should be written to.
+     */
+    public CompiledTemplate[] prepareTemplates(int count) {
+        clear();
+        if (templates.length < count) {
+            templates = new CompiledTemplate[Math.max(count, templates.length * 2)];
+        }
+        size = count;
+        return templates;
+    }
+
+    /**
+     * Two-element array holding the left and right border, written in place by the time range calculation.
+     */
+    public long[] borders() {
+        return borders;
+    }
+
+    /**
+     * Sampling scratch owned by the buffer, so generation through a buffer keeps no per-thread state.
+     */
+    SelectionScratch scratch() {
+        if (scratch == null) {
+            scratch = new SelectionScratch();
+        }
+        return scratch;
+    }
+
+    public void setSource(UserHandle user, PagePlan page) {
+        this.user = user;
+        this.page = page;
+    }
+
+    public void setLabels(String userType, String userName, String timePeriodName, CompiledFilter appliedFilter) {
+        setLabels(userType, userName, timePeriodName);
+        setFilter(appliedFilter);
+    }
+
+    /**
+     * Sets the labels, keeping the filter recorded by {@link #setFilter} or {@link #stackFilters}.
+     */
+    public void setLabels(String userType, String userName, String timePeriodName) {
+        this.userType = userType;
+        this.userName = userName;
+        this.timePeriodName = timePeriodName;
+    }
+
+    void setFilter(CompiledFilter filter) {
+        if (stacked) {
+            stackedFilters.clear();
+            stacked = false;
+        }
+        this.appliedFilter = filter;
+    }
+
+    /**
+     * Records {@code count} filters of {@code pool} by index; templates write their precompiled blocks joined in
+     * place, and a combined {@link CompiledFilter} is only built if a caller asks for one.
+     */
+    void stackFilters(FilterPool pool, int[] indices, int count) {
+        if (stackedFilters == null) {
+            stackedFilters = new FilterSelection();
+        }
+        stackedFilters.set(pool, indices, count);
+        stacked = true;
+        appliedFilter = null;
+    }
+
+    private FilterBlock filterBlock() {
+        return stacked ? stackedFilters : appliedFilter;
+    }
+
+    /**
+     * Renders every template into its reusable builder, making {@link #getQuery(int)} available.
+     */
+    public void render() {
+        if (queries.length < size) {
+            StringBuilder[] grown = new StringBuilder[Math.max(size, queries.length * 2)];
+            System.arraycopy(queries, 0, grown, 0, queries.length);
+            queries = grown;
+        }
+        for (int i = 0; i < size; i++) {
+            StringBuilder sb = queries[i];
+            if (sb == null) {
+                sb = new StringBuilder(Math.max(DEFAULT_QUERY_CAPACITY, templates[i].estimateLength(filterBlock())));
+                queries[i] = sb;
+            } else {
+                sb.setLength(0);
+            }
+            templates[i].appendTo(sb, borders[0], borders[1], filterBlock());
+        }
+        rendered = true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public CompiledTemplate getTemplate(int index) {
+        checkIndex(index);
+        return templates[index];
+    }
+
+    /**
+     * Rendered query backed by a reused builder; its contents change on the next generation into this buffer.
+     */
+    public CharSequence getQuery(int index) {
+        checkIndex(index);
+        if (!rendered) {
+            throw new IllegalStateException("Queries have not been rendered into this buffer");
+        }
+        return queries[index];
+    }
+
+    public void renderTo(int index, Appendable out) throws IOException {
+        checkIndex(index);
+        templates[index].appendTo(out, borders[0], borders[1], filterBlock());
+    }
+
+    public void renderTo(int index, CharBuffer out) {
+        checkIndex(index);
+        templates[index].appendTo(out, borders[0], borders[1], filterBlock());
+    }
+
+    public void encodeTo(int index, ByteBuffer out) {
+        checkIndex(index);
+        templates[index].encodeTo(out, borders[0], borders[1], filterBlock());
+    }
+
+    public int maxEncodedLength(int index) {
+        checkIndex(index);
+        return templates[index].maxEncodedLength(filterBlock());
+    }
+
+    public PreparedQueries toPreparedQueries() {
+        return new PreparedQueries(Arrays.asList(Arrays.copyOf(templates, size)), userType, userName, timePeriodName,
+                getCompiledFilter(), borders[0], borders[1]);
+    }
+
+    public QueryResult toQueryResult() {
+        List<String> rendered = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rendered.add(this.rendered ? queries[i].toString()
+                    : templates[i].render(borders[0], borders[1], filterBlock()));
+        }
+        return new QueryResult(rendered, userType, userName, timePeriodName, getAppliedFilter(), borders[0], borders[1]);
+    }
+
+    public UserHandle getUser() {
+        return user;
+    }
+
+    public PagePlan getPage() {
+        return page;
+    }
+
+    public String getUserType() {
+        return userType;
+    }
+
+    public String getUserName() {
+        return userName;
+    }
+
+    public String getTimePeriodName() {
+        return timePeriodName;
+    }
+
+    public String getAppliedFilter() {
+        CompiledFilter filter = getCompiledFilter();
+        return filter != null ? filter.getExpression() : null;
+    }
+
+    /**
+     * The applied filter; for stacked filters, a combined filter built on the first call for this iteration.
+     */
+    public CompiledFilter getCompiledFilter() {
+        if (stacked && appliedFilter == null) {
+            appliedFilter = stackedFilters.toCompiledFilter();
+        }
+        return appliedFilter;
+    }
+
+    public boolean hasFilter() {
+        return stacked || appliedFilter != null;
+    }
+
+    public long getTimeLeftBorder() {
+        return borders[0];
+    }
+
+    public long getTimeRightBorder() {
+        return borders[1];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        }
+    }
+}
@@ -1,35 +1,50 @@
 package com.human.service;
 
-import org.apache.commons.text.StringSubstitutor;
-
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
 
 public class QueryTemplateProcessor {
 
-    private static final ThreadLocal<StringSubstitutor> SUBSTITUTOR =
-            ThreadLocal.withInitial(StringSubstitutor::new);
-
-
     public String processTemplate(String template, TimeRange timeRange, String filter) {
         if (template == null || template.trim().isEmpty()) {
             throw new IllegalArgumentException("Template cannot be null or empty");
         }
-        if (timeRange == null) {
-            throw new IllegalArgumentException("TimeRange cannot be null");
-        }
+
+        return processTemplate(CompiledTemplate.compile(template), timeRange, filter);
+    }
+
+    public String processTemplate(CompiledTemplate template, TimeRange timeRange, String filter) {
+        validate(template, timeRange);
 
         try {
-            Map<String, Object> values = new HashMap<>();
-            values.put("time_left_border", timeRange.getLeftBorder());
-            values.put("time_right_border", timeRange.getRightBorder());
-            values.put("filter_block", filter != null ? "(" + filter + ")" : "");
-            values.put("filter_and_block", filter != null ? "AND (" + filter + ")" : "");
-            values.put("filter_or_block", filter != null ? "OR (" + filter + ")" : "");
-
-            return SUBSTITUTOR.get().replace(template, values);
+            return template.render(timeRange.getLeftBorder(), timeRange.getRightBorder(), filter);
         } catch (Exception e) {
             throw new RuntimeException("Failed to process template: " + template, e);
         }
     }
+
+    public void renderTemplate(CompiledTemplate template, TimeRange timeRange, String filter, Appendable out) throws IOException {
+        validate(template, timeRange);
+        template.appendTo(out, timeRange.getLeftBorder(), timeRange.getRightBorder(), filter);
+    }
+
+    public void renderTemplate(CompiledTemplate template, TimeRange timeRange, String filter, CharBuffer out) {
+        validate(template, timeRange);
+        template.appendTo(out, timeRange.getLeftBorder(), timeRange.getRightBorder(), filter);
+    }
+
+    public void encodeTemplate(CompiledTemplate template, TimeRange timeRange, String filter, ByteBuffer out) {
+        validate(template, timeRange);
+        template.encodeTo(out, timeRange.getLeftBorder(), timeRange.getRightBorder(), filter);
+    }
+
+    private void validate(CompiledTemplate template, TimeRange timeRange) {
+        if (template == null || template.isBlank()) {
+            throw new IllegalArgumentException("Template cannot be null or empty");
+        }
+        if (timeRange == null) {
+            throw new IllegalArgumentException("TimeRange cannot be null");
+        }
+    }
 }
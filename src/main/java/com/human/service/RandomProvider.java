@@ -0,0 +1,172 @@
+package com.human.service;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hands out per-thread {@link QueryRandom} instances. In seeded mode every (user, stream, iteration) triple maps to
+ * its own reproducible stream: the thread's generator is reseeded from the triple before each iteration.
+ * <p>
+ * Calls without explicit coordinates use the thread's stream and count iterations per (thread, user), so one user's
+ * draws do not shift when the thread also generates for others. Thread streams take negative ids in the order
+ * threads first need one, which races between threads: only calls with explicit coordinates, and reserved streams
+ * handed out in a deterministic order, reproduce across multi-threaded runs. Reserved ids come from their own
+ * counter and are never negative, so reserving a stream does not move any thread's stream.
+ */
+public final class RandomProvider {
+
+    private static final RandomProvider DEFAULT = new RandomProvider(null);
+    private static final long NO_STREAM = 0;
+
+    private final Long seed;
+    private final AtomicLong threadStreamIds = new AtomicLong();
+    private final AtomicLong reservedStreamIds = new AtomicLong();
+    private final ThreadLocal<ThreadState> threadState = ThreadLocal.withInitial(this::newThreadState);
+
+    private RandomProvider(Long seed) {
+        this.seed = seed;
+    }
+
+    public static RandomProvider defaultProvider() {
+        return DEFAULT;
+    }
+
+    public static RandomProvider unseeded() {
+        return new RandomProvider(null);
+    }
+
+    public static RandomProvider seeded(long seed) {
+        return new RandomProvider(seed);
+    }
+
+    public boolean isSeeded() {
+        return seed != null;
+    }
+
+    public Long getSeed() {
+        return seed;
+    }
+
+    public QueryRandom current() {
+        ThreadState state = threadState.get();
+        if (seed != null && state.streamId == NO_STREAM) {
+            state.random.reseed(SplitMix64Random.mix64(seed + SplitMix64Random.GOLDEN_GAMMA * threadStreamId(state)));
+        }
+        return state.random;
+    }
+
+    public QueryRandom forUser(int userId) {
+        ThreadState state = threadState.get();
+        if (seed == null) {
+            return state.random;
+        }
+        return reseed(state, userId, threadStreamId(state), state.nextIterations(userId, 1));
+    }
+
+    public QueryRandom forIteration(int userId, long streamId, long iteration) {
+        ThreadState state = threadState.get();
+        if (seed == null) {
+            return state.random;
+        }
+        return reseed(state, userId, streamId, iteration);
+    }
+
+    /**
+     * Fetches the thread's generator once for {@code count} iterations of one user. In seeded mode the batch reserves
+     * the user's next {@code count} iteration numbers on this thread, so it draws exactly what {@code count} calls of
+     * {@link #forUser(int)} would.
+     */
+    public Batch forBatch(int userId, int count) {
+        if (count < 0) {
+            throw new IllegalArgumentException("Batch size cannot be negative: " + count);
+        }
+        ThreadState state = threadState.get();
+        if (seed == null) {
+            return new Batch(this, state.random, userId, NO_STREAM, 0);
+        }
+        long firstIteration = state.nextIterations(userId, count);
+        return new Batch(this, state.random, userId, threadStreamId(state), firstIteration);
+    }
+
+    /**
+     * Reserves a non-negative stream id that no thread will use, for generators that manage their own random state.
+     */
+    public long nextStreamId() {
+        return reservedStreamIds.getAndIncrement();
+    }
+
+    public long streamSeed(int userId, long streamId, long iteration) {
+        long base = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+        long h = SplitMix64Random.mix64(base + SplitMix64Random.GOLDEN_GAMMA * (userId + 1L));
+        h = SplitMix64Random.mix64(h + SplitMix64Random.GOLDEN_GAMMA * (streamId + 1L));
+        return SplitMix64Random.mix64(h + SplitMix64Random.GOLDEN_GAMMA * (iteration + 1L));
+    }
+
+    private QueryRandom reseed(ThreadState state, int userId, long streamId, long iteration) {
+        state.random.reseed(streamSeed(userId, streamId, iteration));
+        return state.random;
+    }
+
+    /**
+     * The thread's stream id, taken on first use so threads that only use explicit coordinates never take one.
+     */
+    private long threadStreamId(ThreadState state) {
+        if (state.streamId == NO_STREAM) {
+            state.streamId = -1 - threadStreamIds.getAndIncrement();
+        }
+        return state.streamId;
+    }
+
+    private ThreadState newThreadState() {
+        return new ThreadState(new SplitMix64Random(seed != null ? 0 : ThreadLocalRandom.current().nextLong()));
+    }
+
+    public static final class Batch {
+        private final RandomProvider provider;
+        private final SplitMix64Random random;
+        private final int userId;
+        private final long streamId;
+        private long iteration;
+
+        private Batch(RandomProvider provider, SplitMix64Random random, int userId, long streamId, long iteration) {
+            this.provider = provider;
+            this.random = random;
+            this.userId = userId;
+            this.streamId = streamId;
+            this.iteration = iteration;
+        }
+
+        public QueryRandom next() {
+            if (provider.seed != null) {
+                random.reseed(provider.streamSeed(userId, streamId, iteration++));
+            }
+            return random;
+        }
+    }
+
+    private static final class ThreadState {
+        private final SplitMix64Random random;
+        private long streamId = NO_STREAM;
+        private long[] iterations = new long[0];
+
+        private ThreadState(SplitMix64Random random) {
+            this.random = random;
+        }
+
+        /**
+         * Returns the user's next iteration number on this thread and moves past {@code count} of them.
+         */
+        private long nextIterations(int userId, int count) {
+            if (userId < 0) {
+                throw new IllegalArgumentException("User id cannot be negative: " + userId);
+            }
+            if (userId >= iterations.length) {
+                iterations = Arrays.copyOf(iterations, Math.max(userId + 1, iterations.length * 2));
+            }
+            long iteration = iterations[userId];
+            iterations[userId] += count;
+            return iteration;
+        }
+    }
+}
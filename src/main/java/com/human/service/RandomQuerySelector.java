@@ -2,12 +2,14 @@ package com.human.service;
 
 import com.human.config.RandomUserConfig;
 import com.human.config.RandomQueryConfig;
+import com.human.enums.SelectionMode;
 
 import java.util.*;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.stream.Collectors;
 
 public class RandomQuerySelector {
+
+    private volatile MixedQueries mixedQueries;
+
     public List<String> selectQueriesFromConfigs(RandomUserConfig config,
                                                  java.util.Map<String, RandomQueryConfig> dynamicQueryTemplates) {
         if (config == null) {
@@ -26,10 +28,7 @@ public class RandomQuerySelector {
         }
 
         if (config.hasQueriesFile()) {
-            return dynamicQueryTemplates.values().stream()
-                    .flatMap(queryConfig -> queryConfig.getQueries().stream())
-                    .distinct()
-                    .collect(java.util.stream.Collectors.toList());
+            return selectQueriesFromRandomQueryConfig(config.getMixedQueriesConfig(getMixedQueries(dynamicQueryTemplates)));
         }
 
         String selectedPage = selectPageFromRandomQueryConfigs(config, dynamicQueryTemplates);
@@ -42,19 +41,70 @@ public class RandomQuerySelector {
         return selectQueriesFromRandomQueryConfig(queryConfig);
     }
 
+    public PagePlan selectPage(UserPlan plan, QueryRandom random) {
+        if (plan == null) {
+            throw new IllegalArgumentException("UserPlan cannot be null");
+        }
+
+        int pageCount = plan.getPageCount();
+        if (pageCount == 0) {
+            throw new IllegalStateException("No pages available in dynamic query templates");
+        }
+
+        if (pageCount == 1) {
+            return plan.getPage(0);
+        }
+        AliasTable weights = plan.getPageWeights();
+        return plan.getPage(weights != null ? weights.sample(random) : random.nextInt(pageCount));
+    }
+
     public static class QuerySelectionResult {
         private final List<String> queries;
+        private final List<CompiledTemplate> templates;
         private final String pageName;
 
         public QuerySelectionResult(List<String> queries, String pageName) {
-            this.queries = queries != null ? Collections.unmodifiableList(new ArrayList<>(queries)) : Collections.emptyList();
+            this(copyOf(queries), compileAll(queries), pageName);
+        }
+
+        private QuerySelectionResult(List<String> queries, List<CompiledTemplate> templates, String pageName) {
+            this.queries = queries;
+            this.templates = templates;
             this.pageName = pageName;
         }
 
+        public static QuerySelectionResult ofTemplates(List<CompiledTemplate> templates, String pageName) {
+            List<String> sources = new ArrayList<>();
+            if (templates != null) {
+                for (CompiledTemplate template : templates) {
+                    sources.add(template.getSource());
+                }
+            }
+            return new QuerySelectionResult(Collections.unmodifiableList(sources), copyOf(templates), pageName);
+        }
+
+        private static List<CompiledTemplate> compileAll(List<String> queries) {
+            List<CompiledTemplate> templates = new ArrayList<>();
+            if (queries != null) {
+                for (String query : queries) {
+                    templates.add(CompiledTemplate.compile(query));
+                }
+            }
+            return Collections.unmodifiableList(templates);
+        }
+
+        private static <T> List<T> copyOf(List<T> list) {
+            return list != null ? Collections.unmodifiableList(new ArrayList<>(list)) : Collections.emptyList();
+        }
+
         public List<String> getQueries() {
             return queries;
         }
 
+        public List<CompiledTemplate> getTemplates() {
+            return templates;
+        }
+
         public String getPageName() {
             return pageName;
         }
@@ -77,19 +127,16 @@ public class RandomQuerySelector {
                 return new QuerySelectionResult(Collections.emptyList(), "Unknown");
             }
 
-            String selectedPageName = pageNames.get(ThreadLocalRandom.current().nextInt(pageNames.size()));
+            String selectedPageName = pageNames.get(RandomProvider.defaultProvider().current().nextInt(pageNames.size()));
             RandomQueryConfig randomQueryConfig = userQueries.get(selectedPageName);
-            List<String> selectedQueries = selectQueriesFromRandomQueryConfig(randomQueryConfig, selectedPageName);
+            List<CompiledTemplate> selectedTemplates = selectTemplatesFromRandomQueryConfig(randomQueryConfig);
 
-            return new QuerySelectionResult(selectedQueries, selectedPageName);
+            return QuerySelectionResult.ofTemplates(selectedTemplates, selectedPageName);
         }
 
         if (config.hasQueriesFile()) {
-            List<String> allQueries = dynamicQueryTemplates.values().stream()
-                    .flatMap(queryConfig -> queryConfig.getQueries().stream())
-                    .distinct()
-                    .collect(Collectors.toList());
-            return new QuerySelectionResult(allQueries, "Mixed");
+            RandomQueryConfig mixedConfig = config.getMixedQueriesConfig(getMixedQueries(dynamicQueryTemplates));
+            return QuerySelectionResult.ofTemplates(selectTemplatesFromRandomQueryConfig(mixedConfig), UserPlanCompiler.MIXED_PAGE_NAME);
         }
 
         String selectedPage = selectPageFromRandomQueryConfigs(config, dynamicQueryTemplates);
@@ -99,9 +146,28 @@ public class RandomQuerySelector {
             return new QuerySelectionResult(Collections.emptyList(), selectedPage);
         }
 
-        List<String> selectedQueries = selectQueriesFromRandomQueryConfig(queryConfig, selectedPage);
+        List<CompiledTemplate> selectedTemplates = selectTemplatesFromRandomQueryConfig(queryConfig);
 
-        return new QuerySelectionResult(selectedQueries, selectedPage);
+        return QuerySelectionResult.ofTemplates(selectedTemplates, selectedPage);
+    }
+
+    private RandomQueryConfig getMixedQueries(Map<String, RandomQueryConfig> dynamicQueryTemplates) {
+        MixedQueries cached = mixedQueries;
+        if (cached == null || cached.source != dynamicQueryTemplates) {
+            cached = new MixedQueries(dynamicQueryTemplates, RandomQueryConfig.mixedOf(dynamicQueryTemplates.values()));
+            mixedQueries = cached;
+        }
+        return cached.queries;
+    }
+
+    private static final class MixedQueries {
+        private final Map<String, RandomQueryConfig> source;
+        private final RandomQueryConfig queries;
+
+        private MixedQueries(Map<String, RandomQueryConfig> source, RandomQueryConfig queries) {
+            this.source = source;
+            this.queries = queries;
+        }
     }
 
     private String selectPage(RandomUserConfig config, java.util.Map<String, List<String>> dynamicQueryTemplates) {
@@ -111,7 +177,7 @@ public class RandomQuerySelector {
             throw new IllegalStateException("No pages available in dynamic query templates");
         }
 
-        int randomIndex = ThreadLocalRandom.current().nextInt(availablePages.size());
+        int randomIndex = RandomProvider.defaultProvider().current().nextInt(availablePages.size());
         return availablePages.get(randomIndex);
     }
 
@@ -122,7 +188,7 @@ public class RandomQuerySelector {
             throw new IllegalStateException("No pages available in dynamic query templates");
         }
 
-        int randomIndex = ThreadLocalRandom.current().nextInt(availablePages.size());
+        int randomIndex = RandomProvider.defaultProvider().current().nextInt(availablePages.size());
         return availablePages.get(randomIndex);
     }
 
@@ -139,7 +205,7 @@ public class RandomQuerySelector {
             throw new IllegalStateException("No pages available in user queries");
         }
 
-        int randomIndex = ThreadLocalRandom.current().nextInt(availablePages.size());
+        int randomIndex = RandomProvider.defaultProvider().current().nextInt(availablePages.size());
         return availablePages.get(randomIndex);
     }
 
@@ -150,61 +216,77 @@ public class RandomQuerySelector {
             throw new IllegalStateException("No pages available in user queries");
         }
 
-        int randomIndex = ThreadLocalRandom.current().nextInt(availablePages.size());
+        int randomIndex = RandomProvider.defaultProvider().current().nextInt(availablePages.size());
         return userQueries.get(availablePages.get(randomIndex));
     }
 
     public List<String> selectQueriesFromRandomQueryConfig(RandomQueryConfig queryConfig) {
-        List<String> availableQueries = new ArrayList<>(queryConfig.getQueries());
-
-        if (availableQueries.isEmpty()) {
-            return Collections.emptyList();
-        }
+        return selectFromPool(queryConfig, queryConfig.getQueries());
+    }
 
-        if (queryConfig.isAllSelectEnabled()) {
-            return availableQueries;
-        }
+    public List<String> selectQueriesFromRandomQueryConfig(RandomQueryConfig queryConfig, String pageName) {
+        return selectFromPool(queryConfig, queryConfig.getQueries());
+    }
 
-        if (!queryConfig.isRandomSelectionEnabled()) {
-            int count = Math.min(queryConfig.getMinSelectedQueries(), availableQueries.size());
-            return availableQueries.subList(0, count);
-        }
+    public List<CompiledTemplate> selectTemplatesFromRandomQueryConfig(RandomQueryConfig queryConfig) {
+        return selectFromPool(queryConfig, queryConfig.getCompiledQueries());
+    }
 
-        int maxCount = Math.max(
-                queryConfig.getMinSelectedQueries(),
-                (availableQueries.size() * queryConfig.getMaxCountSelectedInPercent()) / 100
-        );
+    public int selectQueries(PagePlan page, CompiledTemplate[] out, QueryRandom random) {
+        return selectQueries(page, out, random, SelectionScratch.current(), QueryClock.system().currentTimeSeconds());
+    }
 
-        int selectedCount = Math.min(maxCount, availableQueries.size());
+    public int selectQueries(PagePlan page, QueryResultBuffer buffer, QueryRandom random) {
+        return selectQueries(page, buffer, random, QueryClock.system().currentTimeSeconds());
+    }
 
-        Collections.shuffle(availableQueries);
-        return availableQueries.subList(0, selectedCount);
+    /**
+     * Selects the page's templates into {@code buffer}, sampling with the buffer's scratch instead of the thread's.
+     * {@code currentTime} is the iteration's clock time, which moves shifting hotspots.
+     */
+    public int selectQueries(PagePlan page, QueryResultBuffer buffer, QueryRandom random, long currentTime) {
+        return selectQueries(page, buffer.prepareTemplates(page.getSelectionCount()), random, buffer.scratch(),
+                currentTime);
     }
 
-    public List<String> selectQueriesFromRandomQueryConfig(RandomQueryConfig queryConfig, String pageName) {
-        List<String> availableQueries = new ArrayList<>(queryConfig.getQueries());
+    private int selectQueries(PagePlan page, CompiledTemplate[] out, QueryRandom random, SelectionScratch scratch,
+                              long currentTime) {
+        QueryPool pool = page.getQueryPool();
+        int count = page.getSelectionCount();
 
-        if (availableQueries.isEmpty()) {
-            return Collections.emptyList();
+        if (page.getSelectionMode() != SelectionMode.RANDOM) {
+            for (int i = 0; i < count; i++) {
+                out[i] = pool.get(i);
+            }
+            return count;
         }
 
-        if (queryConfig.isAllSelectEnabled()) {
-            return availableQueries;
+        int[] indices = scratch.sample(page.getQuerySampler(), pool.size(), count, random, currentTime);
+        for (int i = 0; i < count; i++) {
+            out[i] = pool.get(indices[i]);
         }
+        return count;
+    }
 
-        if (!queryConfig.isRandomSelectionEnabled()) {
-            int count = Math.min(queryConfig.getMinSelectedQueries(), availableQueries.size());
-            return availableQueries.subList(0, count);
+    private <T> List<T> selectFromPool(RandomQueryConfig queryConfig, List<T> pool) {
+        int count = PagePlan.selectionCount(queryConfig, pool.size());
+        if (count == 0) {
+            return Collections.emptyList();
         }
 
-        int maxCount = Math.max(
-                queryConfig.getMinSelectedQueries(),
-                (availableQueries.size() * queryConfig.getMaxCountSelectedInPercent()) / 100
-        );
-
-        int selectedCount = Math.min(maxCount, availableQueries.size());
+        List<T> selected = new ArrayList<>(count);
+        if (PagePlan.selectionMode(queryConfig) != SelectionMode.RANDOM) {
+            for (int i = 0; i < count; i++) {
+                selected.add(pool.get(i));
+            }
+            return selected;
+        }
 
-        Collections.shuffle(availableQueries);
-        return availableQueries.subList(0, selectedCount);
+        int[] indices = SelectionScratch.current().sample(queryConfig.getQuerySampler(), pool.size(), count,
+                RandomProvider.defaultProvider().current(), QueryClock.system().currentTimeSeconds());
+        for (int i = 0; i < count; i++) {
+            selected.add(pool.get(indices[i]));
+        }
+        return selected;
     }
 }
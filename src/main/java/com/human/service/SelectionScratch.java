@@ -0,0 +1,365 @@
+package com.human.service;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread index buffers for sampling without replacement. The permutation array is kept as the identity between
+ * calls: each partial Fisher-Yates pass records its swaps and undoes them, so one array serves pools of any size.
+ * Non-uniform draws track picked indices with epoch-stamped marks, so the mark array never needs clearing. Pools
+ * past {@link #DENSE_POPULATION_LIMIT} (memory-mapped corpora) track them in a hash set sized by the selection
+ * instead, so nothing here grows with the pool unless one selection takes a large share of it.
+ */
+final class SelectionScratch {
+
+    private static final ThreadLocal<SelectionScratch> CURRENT = ThreadLocal.withInitial(SelectionScratch::new);
+    private static final int MAX_ATTEMPTS_PER_ITEM = 4;
+    private static final int REJECTION_RATIO = 4;
+    private static final int HEAP_RATIO = 16;
+    static final int DENSE_POPULATION_LIMIT = 1 << 20;
+
+    private int[] permutation = new int[0];
+    private int[] swaps = new int[0];
+    private int[] swapSources = new int[0];
+    private int[] selected = new int[0];
+    private int[] marks = new int[0];
+    private int epoch;
+    private int mark;
+    private boolean sparse;
+    private long[] keys = new long[0];
+    private int[] seen = new int[0];
+    private int seenMask;
+
+    static SelectionScratch current() {
+        return CURRENT.get();
+    }
+
+    int[] sample(int populationSize, int count, QueryRandom random) {
+        if (populationSize > DENSE_POPULATION_LIMIT) {
+            return sampleSparse(populationSize, count, random);
+        }
+        ensureCapacity(populationSize, count);
+
+        for (int i = 0; i < count; i++) {
+            int j = i + random.nextInt(populationSize - i);
+            swap(i, j);
+            swaps[i] = j;
+            selected[i] = permutation[i];
+        }
+        for (int i = count - 1; i >= 0; i--) {
+            swap(i, swaps[i]);
+        }
+
+        return selected;
+    }
+
+    int[] sample(IndexSampler sampler, int populationSize, int count, QueryRandom random, long nowSeconds) {
+        return sampler != null ? sample(sampler, count, random, nowSeconds) : sample(populationSize, count, random);
+    }
+
+    /**
+     * Draws {@code count} distinct indices as successive weighted draws: each pick is proportional to the weights of
+     * the indices not picked yet. Hotspots pick a region by its remaining mass and then an entry uniformly within it,
+     * in O(count). Other samplers reject duplicates while the selection is small next to the pool. When it is not,
+     * or too many draws are rejected, one pass of Efraimidis-Spirakis keys over the pool picks the rest.
+     * <p>
+     * Every draw and weight lookup of one selection uses the same {@code nowSeconds}, so a time-dependent sampler
+     * sees a single window even if the selection straddles a shift.
+     */
+    int[] sample(IndexSampler sampler, int count, QueryRandom random, long nowSeconds) {
+        if (sampler instanceof HotspotSampler) {
+            return sampleHotspot((HotspotSampler) sampler, count, random, nowSeconds);
+        }
+        int populationSize = sampler.size();
+        startSelection(populationSize, count);
+
+        int taken = 0;
+        if ((long) count * REJECTION_RATIO <= sampler.getPositiveCount()) {
+            long attempts = (long) MAX_ATTEMPTS_PER_ITEM * count;
+            while (taken < count && attempts-- > 0) {
+                int index = sampler.sample(random, nowSeconds);
+                if (take(index)) {
+                    selected[taken++] = index;
+                }
+            }
+        }
+        if (taken < count) {
+            sampleByKeys(sampler, populationSize, taken, count, random, nowSeconds);
+        }
+
+        return selected;
+    }
+
+    /**
+     * Records a single pick in the selection array, so one draw and a multi-draw read back the same way.
+     */
+    int[] selectOne(int index) {
+        ensureSelected(1);
+        selected[0] = index;
+        return selected;
+    }
+
+    /**
+     * Result of the last {@code sample} or {@link #selectOne} call.
+     */
+    int[] selected() {
+        return selected;
+    }
+
+    private int[] sampleSparse(int populationSize, int count, QueryRandom random) {
+        ensureSelected(count);
+        clearSeen(count);
+
+        int taken = 0;
+        while (taken < count) {
+            int index = random.nextInt(populationSize);
+            if (markSeen(index)) {
+                selected[taken++] = index;
+            }
+        }
+
+        return selected;
+    }
+
+    /**
+     * Picks the hot or cold region in proportion to the weight still left in it, then the next entry of that region
+     * by a partial Fisher-Yates pass over window positions (or rejection against the seen set on sparse pools).
+     */
+    private int[] sampleHotspot(HotspotSampler sampler, int count, QueryRandom random, long nowSeconds) {
+        int size = sampler.size();
+        int hotCount = sampler.getHotCount();
+        int coldCount = size - hotCount;
+        double hotWeight = sampler.getHotShare() / hotCount;
+        double coldWeight = coldCount > 0 ? (1.0 - sampler.getHotShare()) / coldCount : 0;
+        int offset = sampler.windowOffset(nowSeconds);
+        sparse = size > DENSE_POPULATION_LIMIT;
+        if (sparse) {
+            ensureSelected(count);
+            clearSeen(count);
+        } else {
+            ensureCapacity(size, count);
+        }
+
+        int hotTaken = 0;
+        int coldTaken = 0;
+        int taken = 0;
+        while (taken < count) {
+            double hotMass = (hotCount - hotTaken) * hotWeight;
+            double coldMass = (coldCount - coldTaken) * coldWeight;
+            if (hotMass + coldMass <= 0) {
+                break;
+            }
+            int position = random.nextDouble() * (hotMass + coldMass) < hotMass
+                    ? nextPosition(taken, 0, hotCount, hotTaken++, random)
+                    : nextPosition(taken, hotCount, coldCount, coldTaken++, random);
+            int index = offset + position;
+            selected[taken++] = index >= size ? index - size : index;
+        }
+        if (!sparse) {
+            for (int i = taken - 1; i >= 0; i--) {
+                swap(swapSources[i], swaps[i]);
+            }
+        }
+
+        return selected;
+    }
+
+    /**
+     * Next uniform pick among the {@code length - regionTaken} positions of {@code [start, start + length)} not
+     * picked yet.
+     */
+    private int nextPosition(int step, int start, int length, int regionTaken, QueryRandom random) {
+        if (sparse) {
+            while (true) {
+                int position = start + random.nextInt(length);
+                if (markSeen(position)) {
+                    return position;
+                }
+            }
+        }
+        int i = start + regionTaken;
+        int j = i + random.nextInt(length - regionTaken);
+        swap(i, j);
+        swapSources[step] = i;
+        swaps[step] = j;
+        return permutation[i];
+    }
+
+    /**
+     * Fills {@code selected[taken, count)} with the indices of the smallest keys {@code -ln(u) / weight} among those
+     * not taken yet, in ascending key order, which is exactly how successive weighted draws would continue. Each
+     * candidate is packed into one long, the key's float bits above the index, so ordering the longs orders the
+     * keys. Small selections keep their candidates in a bounded max-heap, so memory follows the selection; larger
+     * ones sort all candidates, which is cheaper than churning a heap of that size.
+     */
+    private void sampleByKeys(IndexSampler sampler, int populationSize, int taken, int count, QueryRandom random,
+                              long nowSeconds) {
+        int capacity = count - taken;
+        boolean bounded = (long) capacity * HEAP_RATIO < populationSize;
+        int needed = bounded ? capacity : populationSize;
+        if (keys.length < needed) {
+            keys = new long[Math.max(needed, Math.min(populationSize, keys.length * 2))];
+        }
+        int size = 0;
+        for (int index = 0; index < populationSize; index++) {
+            double weight = sampler.getWeight(index, nowSeconds);
+            if (weight <= 0 || isTaken(index)) {
+                continue;
+            }
+            float key = (float) (-Math.log(random.nextDouble()) / weight);
+            long candidate = (long) Float.floatToIntBits(key) << 32 | index;
+            if (!bounded) {
+                keys[size++] = candidate;
+            } else if (size < capacity) {
+                siftUp(size++, candidate);
+            } else if (candidate < keys[0]) {
+                siftDown(candidate, size);
+            }
+        }
+
+        if (!bounded) {
+            Arrays.sort(keys, 0, size);
+            for (int i = 0; i < capacity && i < size; i++) {
+                selected[taken + i] = (int) keys[i];
+            }
+            return;
+        }
+        while (size > 0) {
+            selected[taken + --size] = (int) keys[0];
+            siftDown(keys[size], size);
+        }
+    }
+
+    private void siftUp(int i, long candidate) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (keys[parent] >= candidate) {
+                break;
+            }
+            keys[i] = keys[parent];
+            i = parent;
+        }
+        keys[i] = candidate;
+    }
+
+    private void siftDown(long candidate, int heapSize) {
+        int i = 0;
+        int half = heapSize >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < heapSize && keys[child + 1] > keys[child]) {
+                child++;
+            }
+            if (candidate >= keys[child]) {
+                break;
+            }
+            keys[i] = keys[child];
+            i = child;
+        }
+        keys[i] = candidate;
+    }
+
+    /**
+     * Resets the taken set for a new weighted selection: epoch marks on dense pools, the seen set on sparse ones.
+     */
+    private void startSelection(int populationSize, int count) {
+        sparse = populationSize > DENSE_POPULATION_LIMIT;
+        if (sparse) {
+            ensureSelected(count);
+            clearSeen(count);
+        } else {
+            ensureCapacity(populationSize, count);
+            mark = nextEpoch(populationSize);
+        }
+    }
+
+    private boolean take(int index) {
+        if (sparse) {
+            return markSeen(index);
+        }
+        if (marks[index] == mark) {
+            return false;
+        }
+        marks[index] = mark;
+        return true;
+    }
+
+    private boolean isTaken(int index) {
+        return sparse ? containsSeen(index) : marks[index] == mark;
+    }
+
+    private void clearSeen(int count) {
+        int capacity = Integer.highestOneBit(Math.max(count, 1)) << 2;
+        if (seen.length < capacity) {
+            seen = new int[capacity];
+        } else {
+            Arrays.fill(seen, 0, capacity, 0);
+        }
+        seenMask = capacity - 1;
+    }
+
+    private boolean containsSeen(int index) {
+        int key = index + 1;
+        for (int slot = (key * 0x9E3779B9) & seenMask; ; slot = (slot + 1) & seenMask) {
+            if (seen[slot] == key) {
+                return true;
+            }
+            if (seen[slot] == 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Adds the index to the seen set, storing {@code index + 1} so that zero marks an empty slot.
+     */
+    private boolean markSeen(int index) {
+        int key = index + 1;
+        for (int slot = (key * 0x9E3779B9) & seenMask; ; slot = (slot + 1) & seenMask) {
+            if (seen[slot] == key) {
+                return false;
+            }
+            if (seen[slot] == 0) {
+                seen[slot] = key;
+                return true;
+            }
+        }
+    }
+
+    private int nextEpoch(int populationSize) {
+        if (marks.length < populationSize) {
+            marks = new int[Math.max(populationSize, marks.length * 2)];
+            epoch = 0;
+        }
+        if (++epoch == 0) {
+            Arrays.fill(marks, 0);
+            epoch = 1;
+        }
+        return epoch;
+    }
+
+    private void swap(int i, int j) {
+        int tmp = permutation[i];
+        permutation[i] = permutation[j];
+        permutation[j] = tmp;
+    }
+
+    private void ensureCapacity(int populationSize, int count) {
+        if (permutation.length < populationSize) {
+            int[] grown = new int[Math.max(populationSize, permutation.length * 2)];
+            for (int i = 0; i < grown.length; i++) {
+                grown[i] = i;
+            }
+            permutation = grown;
+        }
+        ensureSelected(count);
+    }
+
+    private void ensureSelected(int count) {
+        if (selected.length < count) {
+            int capacity = Math.max(count, selected.length * 2);
+            selected = new int[capacity];
+            swaps = new int[capacity];
+            swapSources = new int[capacity];
+        }
+    }
+}
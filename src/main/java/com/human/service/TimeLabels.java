@@ -0,0 +1,76 @@
+package com.human.service;
+
+import com.human.enums.TimePeriod;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+public final class TimeLabels {
+
+    public static final String CUSTOM = "Custom";
+
+    private static final String[] PERIOD_LABELS = periodLabels();
+
+    private TimeLabels() {
+    }
+
+    private static String[] periodLabels() {
+        Map<TimePeriod, String> labels = new EnumMap<>(TimePeriod.class);
+        labels.put(TimePeriod.LAST_1H, last(3600));
+        labels.put(TimePeriod.LAST_8H, last(8 * 3600));
+        labels.put(TimePeriod.LAST_24H, last(24 * 3600));
+        labels.put(TimePeriod.LAST_3D, last(3 * 24 * 3600));
+        labels.put(TimePeriod.LAST_7D, last(7 * 24 * 3600));
+        labels.put(TimePeriod.YESTERDAY, "Yesterday");
+        labels.put(TimePeriod.BEFORE_YESTERDAY, "Before yesterday");
+        labels.put(TimePeriod.SAME_DAY_PREV_WEEK, "Same day previous week");
+        labels.put(TimePeriod.LAST_WEEK, "Last week");
+        labels.put(TimePeriod.CUSTOM, CUSTOM);
+
+        String[] byOrdinal = new String[TimePeriod.values().length];
+        for (Map.Entry<TimePeriod, String> label : labels.entrySet()) {
+            byOrdinal[label.getKey().ordinal()] = label.getValue();
+        }
+        return byOrdinal;
+    }
+
+    public static String period(TimePeriod period) {
+        return PERIOD_LABELS[period.ordinal()];
+    }
+
+    public static String last(long seconds) {
+        return "Last " + formatTimeInterval(seconds);
+    }
+
+    public static String fixed(long timeLeftBorderSeconds, long timeRightBorderSeconds) {
+        if (timeRightBorderSeconds > 0) {
+            return "From now " + formatTimeInterval(timeRightBorderSeconds) + " - Last " + formatTimeInterval(timeLeftBorderSeconds);
+        }
+        return last(timeLeftBorderSeconds);
+    }
+
+    public static String formatTimeInterval(long seconds) {
+        if (seconds == 0) {
+            return "0S";
+        }
+
+        long hours = seconds / 3600;
+        long remainingSeconds = seconds % 3600;
+        long minutes = remainingSeconds / 60;
+        long finalSeconds = remainingSeconds % 60;
+
+        StringBuilder result = new StringBuilder();
+
+        if (hours > 0) {
+            result.append(hours).append("h");
+        }
+        if (minutes > 0) {
+            result.append(minutes).append("m");
+        }
+        if (finalSeconds > 0) {
+            result.append(finalSeconds).append("s");
+        }
+
+        return result.toString();
+    }
+}
@@ -5,10 +5,55 @@ import com.human.config.StaticUserConfig;
 import com.human.config.RandomUserConfig;
 import com.human.enums.TimePeriod;
 
-import java.util.concurrent.ThreadLocalRandom;
+import java.time.ZoneId;
+import java.util.EnumMap;
 
 public class TimeRangeCalculator {
 
+    private static final long HOUR = 3600L;
+    private static final long DAY = 24 * HOUR;
+
+    private final CalendarBoundaries calendar;
+    private final PeriodRange[] ranges;
+    private final QueryClock clock;
+
+    public TimeRangeCalculator() {
+        this(ZoneId.systemDefault());
+    }
+
+    public TimeRangeCalculator(ZoneId zone) {
+        this(zone, QueryClock.system());
+    }
+
+    public TimeRangeCalculator(ZoneId zone, QueryClock clock) {
+        if (clock == null) {
+            throw new IllegalArgumentException("QueryClock cannot be null");
+        }
+        this.calendar = new CalendarBoundaries(zone);
+        this.ranges = buildRanges();
+        this.clock = clock;
+    }
+
+    public ZoneId getZone() {
+        return calendar.getZone();
+    }
+
+    public QueryClock getClock() {
+        return clock;
+    }
+
+    public long currentTimeSeconds() {
+        return clock.currentTimeSeconds();
+    }
+
+    public TimeRange calculateTimeRange(StaticUserConfig config) {
+        return calculateTimeRange(config, clock.currentTimeSeconds());
+    }
+
+    public TimeRange calculateTimeRange(RandomUserConfig config) {
+        return calculateTimeRange(config, clock.currentTimeSeconds());
+    }
+
     public TimeRange calculateTimeRange(StaticUserConfig config, long executionTime) {
         if (config == null) {
             throw new IllegalArgumentException("StaticUserConfig cannot be null");
@@ -25,49 +70,23 @@ public class TimeRangeCalculator {
             throw new IllegalArgumentException("RandomUserConfig cannot be null");
         }
 
-        String selectedTimePeriod = selectTimePeriod(config);
-        return calculateTimeRangeForPeriod(selectedTimePeriod, config, executionTime);
+        QueryRandom random = RandomProvider.defaultProvider().current();
+        TimePeriod selectedTimePeriod = selectTimePeriod(config, random);
+        return calculateTimeRangeForPeriod(selectedTimePeriod, config, executionTime, random);
     }
 
-    private String selectTimePeriod(RandomUserConfig config) {
+    private TimePeriod selectTimePeriod(RandomUserConfig config, QueryRandom random) {
         if (config.getTimes() == null || config.getTimes().isEmpty()) {
-            return "Last1h";
+            return TimePeriod.LAST_1H;
         }
 
-        int randomIndex = ThreadLocalRandom.current().nextInt(config.getTimes().size());
-        Object timePeriod = config.getTimes().get(randomIndex);
-        return timePeriod.toString();
-    }
-
-    private TimeRange calculateTimeRangeForPeriod(String timePeriod, RandomUserConfig config, long executionTime) {
-        long leftBorder;
-        long rightBorder = executionTime;
-
-        switch (timePeriod) {
-            case "Last8h":
-            case "LAST_8H":
-                leftBorder = executionTime - 28800;
-                break;
-            case "Last24h":
-            case "LAST_24H":
-                leftBorder = executionTime - 86400;
-                break;
-            case "Custom":
-            case "CUSTOM":
-                long maxTimeLeft = config.getMaxTimeLeft() != null ? config.getMaxTimeLeft() : 3600L;
-                long maxTimeRight = config.getMaxTimeRight() != null ? config.getMaxTimeRight() : 0L;
-
-                leftBorder = executionTime - ThreadLocalRandom.current().nextLong(1, maxTimeLeft + 1);
-                rightBorder = executionTime - ThreadLocalRandom.current().nextLong(0, maxTimeRight + 1);
-                break;
-            case "Last1h":
-            case "LAST_1H":
-            default:
-                leftBorder = executionTime - 3600;
-                break;
-        }
+        return config.getTimes().get(random.nextInt(config.getTimes().size()));
+    }
 
-        return new TimeRange(leftBorder, rightBorder);
+    private TimeRange calculateTimeRangeForPeriod(TimePeriod timePeriod, RandomUserConfig config, long executionTime, QueryRandom random) {
+        long maxTimeLeft = config.getMaxTimeLeft() != null ? config.getMaxTimeLeft() : HOUR;
+        long maxTimeRight = config.getMaxTimeRight() != null ? config.getMaxTimeRight() : 0L;
+        return calculateTimeRangeForPeriod(timePeriod, maxTimeLeft, maxTimeRight, executionTime, random);
     }
 
     public TimeRange calculateTimeRange(TimePeriod timePeriod, BaseUserConfig config, long executionTime) {
@@ -88,39 +107,112 @@ public class TimeRangeCalculator {
             maxTimeRight = randomConfig.getMaxTimeRight();
         }
 
-        return calculateTimeRangeForPeriod(timePeriod.name(), maxTimeLeft, maxTimeRight, executionTime);
-    }
-
-
-    private TimeRange calculateTimeRangeForPeriod(String timePeriod, Long maxTimeLeft, Long maxTimeRight, long executionTime) {
-        long leftBorder;
-        long rightBorder = executionTime;
-
-        switch (timePeriod) {
-            case "Last8h":
-            case "LAST_8H":
-                leftBorder = executionTime - 28800;
-                break;
-            case "Last24h":
-            case "LAST_24H":
-                leftBorder = executionTime - 86400;
-                break;
-            case "Custom":
-            case "CUSTOM":
-                if (maxTimeLeft != null && maxTimeRight != null) {
-                    leftBorder = executionTime - ThreadLocalRandom.current().nextLong(1, maxTimeLeft + 1);
-                    rightBorder = executionTime - ThreadLocalRandom.current().nextLong(0, maxTimeRight + 1);
-                } else {
-                    leftBorder = executionTime - 3600;
-                }
-                break;
-            case "Last1h":
-            case "LAST_1H":
-            default:
-                leftBorder = executionTime - 3600;
-                break;
+        return calculateTimeRangeForPeriod(timePeriod, maxTimeLeft, maxTimeRight, executionTime,
+                RandomProvider.defaultProvider().current());
+    }
+
+
+    public TimeRange calculateTimeRange(TimePeriod timePeriod, TimeStrategy strategy, long executionTime, QueryRandom random) {
+        long[] borders = new long[2];
+        calculateBorders(timePeriod, strategy, executionTime, random, borders);
+        return new TimeRange(borders[0], borders[1]);
+    }
+
+    public TimeRange calculateTimeRange(TimeStrategy strategy, long executionTime) {
+        long[] borders = new long[2];
+        calculateBorders(strategy, executionTime, borders);
+        return new TimeRange(borders[0], borders[1]);
+    }
+
+    /**
+     * Allocation-free variant: writes the left and right border into {@code borders[0]} and {@code borders[1]}.
+     */
+    public void calculateBorders(TimePeriod timePeriod, TimeStrategy strategy, long executionTime, QueryRandom random,
+                                 long[] borders) {
+        if (timePeriod == null) {
+            throw new IllegalArgumentException("TimePeriod cannot be null");
+        }
+
+        ranges[timePeriod.ordinal()].compute(executionTime, strategy.getMaxTimeLeft(), strategy.getMaxTimeRight(),
+                random, borders);
+    }
+
+    public void calculateBorders(TimeStrategy strategy, long executionTime, long[] borders) {
+        if (strategy == null) {
+            throw new IllegalArgumentException("TimeStrategy cannot be null");
+        }
+        if (!strategy.isConfigured()) {
+            throw new IllegalStateException(strategy.getConfigurationError());
         }
 
-        return new TimeRange(leftBorder, rightBorder);
+        borders[0] = executionTime - strategy.getTimeLeftBorder();
+        borders[1] = executionTime - strategy.getTimeRightBorder();
+    }
+
+    private TimeRange calculateTimeRangeForPeriod(TimePeriod timePeriod, Long maxTimeLeft, Long maxTimeRight, long executionTime,
+                                                  QueryRandom random) {
+        long[] borders = new long[2];
+        ranges[timePeriod.ordinal()].compute(executionTime, maxTimeLeft, maxTimeRight, random, borders);
+        return new TimeRange(borders[0], borders[1]);
+    }
+
+    private PeriodRange[] buildRanges() {
+        EnumMap<TimePeriod, PeriodRange> byPeriod = new EnumMap<>(TimePeriod.class);
+        byPeriod.put(TimePeriod.LAST_1H, last(HOUR));
+        byPeriod.put(TimePeriod.LAST_8H, last(8 * HOUR));
+        byPeriod.put(TimePeriod.LAST_24H, last(DAY));
+        byPeriod.put(TimePeriod.LAST_3D, last(3 * DAY));
+        byPeriod.put(TimePeriod.LAST_7D, last(7 * DAY));
+        byPeriod.put(TimePeriod.YESTERDAY, (executionTime, maxTimeLeft, maxTimeRight, random, borders) -> {
+            CalendarBoundaries.Day day = calendar.at(executionTime);
+            borders[0] = day.getStartOfYesterday();
+            borders[1] = day.getStartOfToday();
+        });
+        byPeriod.put(TimePeriod.BEFORE_YESTERDAY, (executionTime, maxTimeLeft, maxTimeRight, random, borders) -> {
+            CalendarBoundaries.Day day = calendar.at(executionTime);
+            borders[0] = day.getStartOfBeforeYesterday();
+            borders[1] = day.getStartOfYesterday();
+        });
+        byPeriod.put(TimePeriod.SAME_DAY_PREV_WEEK, (executionTime, maxTimeLeft, maxTimeRight, random, borders) -> {
+            CalendarBoundaries.Day day = calendar.at(executionTime);
+            borders[0] = day.getStartOfSameDayPrevWeek();
+            borders[1] = day.getEndOfSameDayPrevWeek();
+        });
+        byPeriod.put(TimePeriod.LAST_WEEK, (executionTime, maxTimeLeft, maxTimeRight, random, borders) -> {
+            CalendarBoundaries.Day day = calendar.at(executionTime);
+            borders[0] = day.getStartOfLastWeek();
+            borders[1] = day.getStartOfThisWeek();
+        });
+        byPeriod.put(TimePeriod.CUSTOM, (executionTime, maxTimeLeft, maxTimeRight, random, borders) -> {
+            if (maxTimeLeft == null || maxTimeRight == null) {
+                borders[0] = executionTime - HOUR;
+                borders[1] = executionTime;
+                return;
+            }
+            borders[0] = executionTime - random.nextLong(1, maxTimeLeft + 1);
+            borders[1] = executionTime - random.nextLong(0, maxTimeRight + 1);
+        });
+
+        TimePeriod[] periods = TimePeriod.values();
+        PeriodRange[] byOrdinal = new PeriodRange[periods.length];
+        for (TimePeriod period : periods) {
+            PeriodRange range = byPeriod.get(period);
+            if (range == null) {
+                throw new IllegalStateException("No time range defined for period: " + period);
+            }
+            byOrdinal[period.ordinal()] = range;
+        }
+        return byOrdinal;
+    }
+
+    private static PeriodRange last(long seconds) {
+        return (executionTime, maxTimeLeft, maxTimeRight, random, borders) -> {
+            borders[0] = executionTime - seconds;
+            borders[1] = executionTime;
+        };
+    }
+
+    private interface PeriodRange {
+        void compute(long executionTime, Long maxTimeLeft, Long maxTimeRight, QueryRandom random, long[] borders);
     }
 }
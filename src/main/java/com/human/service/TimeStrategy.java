@@ -0,0 +1,80 @@
+package com.human.service;
+
+import com.human.enums.TimePeriod;
+
+import java.util.List;
+
+public final class TimeStrategy {
+
+    private final TimePeriod[] periods;
+    private final Long maxTimeLeft;
+    private final Long maxTimeRight;
+    private final long timeLeftBorder;
+    private final long timeRightBorder;
+    private final String fixedLabel;
+    private final String configurationError;
+
+    private TimeStrategy(TimePeriod[] periods, Long maxTimeLeft, Long maxTimeRight,
+                         long timeLeftBorder, long timeRightBorder, String fixedLabel, String configurationError) {
+        this.periods = periods;
+        this.maxTimeLeft = maxTimeLeft;
+        this.maxTimeRight = maxTimeRight;
+        this.timeLeftBorder = timeLeftBorder;
+        this.timeRightBorder = timeRightBorder;
+        this.fixedLabel = fixedLabel;
+        this.configurationError = configurationError;
+    }
+
+    public static TimeStrategy periods(List<TimePeriod> periods, Long maxTimeLeft, Long maxTimeRight) {
+        return new TimeStrategy(periods.toArray(new TimePeriod[0]), maxTimeLeft, maxTimeRight, 0, 0, null, null);
+    }
+
+    public static TimeStrategy fixed(long timeLeftBorder, long timeRightBorder) {
+        return new TimeStrategy(null, null, null, timeLeftBorder, timeRightBorder,
+                TimeLabels.fixed(timeLeftBorder, timeRightBorder), null);
+    }
+
+    public static TimeStrategy unconfigured(String configurationError) {
+        return new TimeStrategy(null, null, null, 0, 0, null, configurationError);
+    }
+
+    public boolean hasPeriods() {
+        return periods != null;
+    }
+
+    public int getPeriodCount() {
+        return periods != null ? periods.length : 0;
+    }
+
+    public TimePeriod getPeriod(int index) {
+        return periods[index];
+    }
+
+    public Long getMaxTimeLeft() {
+        return maxTimeLeft;
+    }
+
+    public Long getMaxTimeRight() {
+        return maxTimeRight;
+    }
+
+    public long getTimeLeftBorder() {
+        return timeLeftBorder;
+    }
+
+    public long getTimeRightBorder() {
+        return timeRightBorder;
+    }
+
+    public String getFixedLabel() {
+        return fixedLabel;
+    }
+
+    public boolean isConfigured() {
+        return configurationError == null;
+    }
+
+    public String getConfigurationError() {
+        return configurationError;
+    }
+}
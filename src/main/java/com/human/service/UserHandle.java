@@ -0,0 +1,10 @@
+package com.human.service;
+
+import com.human.enums.UserType;
+
+public interface UserHandle {
+
+    String getUserName();
+
+    UserType getUserType();
+}
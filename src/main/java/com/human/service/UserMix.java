@@ -0,0 +1,69 @@
+package com.human.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted set of users to draw from on every iteration, e.g. for streams that mix several user profiles.
+ */
+public final class UserMix {
+
+    private final UserHandle[] users;
+    private final AliasTable weights;
+
+    public UserMix(List<? extends UserHandle> users, double[] weights) {
+        if (users == null || users.isEmpty()) {
+            throw new IllegalArgumentException("User mix cannot be empty");
+        }
+        if (weights != null && weights.length != users.size()) {
+            throw new IllegalArgumentException("Expected " + users.size() + " weights but got " + weights.length);
+        }
+        for (UserHandle user : users) {
+            if (user == null) {
+                throw new IllegalArgumentException("User handle cannot be null");
+            }
+        }
+        this.users = users.toArray(new UserHandle[0]);
+        this.weights = AliasTable.of(weights);
+    }
+
+    public static UserMix of(UserHandle... users) {
+        return new UserMix(Arrays.asList(users), null);
+    }
+
+    /**
+     * Builds a mix from users and their relative weights, in the map's iteration order.
+     */
+    public static UserMix weighted(Map<? extends UserHandle, ? extends Number> weightedUsers) {
+        if (weightedUsers == null) {
+            throw new IllegalArgumentException("User mix cannot be empty");
+        }
+        List<UserHandle> users = new ArrayList<>(weightedUsers.size());
+        double[] weights = new double[weightedUsers.size()];
+        for (Map.Entry<? extends UserHandle, ? extends Number> entry : weightedUsers.entrySet()) {
+            if (entry.getValue() == null) {
+                throw new IllegalArgumentException("Weight cannot be null for user: " + entry.getKey());
+            }
+            weights[users.size()] = entry.getValue().doubleValue();
+            users.add(entry.getKey());
+        }
+        return new UserMix(users, weights);
+    }
+
+    public int size() {
+        return users.length;
+    }
+
+    public UserHandle get(int index) {
+        return users[index];
+    }
+
+    public UserHandle select(QueryRandom random) {
+        if (users.length == 1) {
+            return users[0];
+        }
+        return users[weights != null ? weights.sample(random) : random.nextInt(users.length)];
+    }
+}
@@ -0,0 +1,80 @@
+package com.human.service;
+
+import com.human.enums.UserType;
+
+import java.util.List;
+
+public final class UserPlan implements UserHandle {
+
+    private final int id;
+    private final String userName;
+    private final UserType userType;
+    private final String userTypeName;
+    private final PagePlan[] pages;
+    private final AliasTable pageWeights;
+    private final FilterPool filterPool;
+    private final TimeStrategy timeStrategy;
+
+    public UserPlan(int id, String userName, UserType userType, List<PagePlan> pages,
+                    FilterPool filterPool, TimeStrategy timeStrategy) {
+        this.id = id;
+        this.userName = userName;
+        this.userType = userType;
+        this.userTypeName = userType.toString();
+        this.pages = pages.toArray(new PagePlan[0]);
+        this.pageWeights = pageWeights(this.pages);
+        this.filterPool = filterPool;
+        this.timeStrategy = timeStrategy;
+    }
+
+    private static AliasTable pageWeights(PagePlan[] pages) {
+        double[] weights = new double[pages.length];
+        for (int i = 0; i < pages.length; i++) {
+            weights[i] = pages[i].getWeight();
+        }
+        return AliasTable.of(weights);
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    @Override
+    public String getUserName() {
+        return userName;
+    }
+
+    @Override
+    public UserType getUserType() {
+        return userType;
+    }
+
+    public String getUserTypeName() {
+        return userTypeName;
+    }
+
+    public int getPageCount() {
+        return pages.length;
+    }
+
+    public PagePlan getPage(int index) {
+        return pages[index];
+    }
+
+    public AliasTable getPageWeights() {
+        return pageWeights;
+    }
+
+    public FilterPool getFilterPool() {
+        return filterPool;
+    }
+
+    public TimeStrategy getTimeStrategy() {
+        return timeStrategy;
+    }
+
+    @Override
+    public String toString() {
+        return "UserPlan{userName='" + userName + "', userType=" + userType + ", pages=" + pages.length + '}';
+    }
+}
@@ -0,0 +1,163 @@
+package com.human.service;
+
+import com.human.config.BaseUserConfig;
+import com.human.config.RandomQueryConfig;
+import com.human.config.RandomUserConfig;
+import com.human.config.StaticUserConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class UserPlanCompiler {
+
+    public static final String MIXED_PAGE_NAME = "Mixed";
+
+    // Users loaded from the same filters file share one list instance; compile it and its weights once per compile().
+    // Filter weights are keyed by that instance too, so they only apply to the list they were read with.
+    private final Map<List<String>, CompiledFilter[]> compiledFilters = new IdentityHashMap<>();
+    private final Map<List<String>, IndexSampler> weightedSamplers = new IdentityHashMap<>();
+
+    public Map<String, UserPlan> compile(Map<String, BaseUserConfig> userConfigs,
+                                         Map<String, RandomQueryConfig> dynamicQueryTemplates,
+                                         List<String> allFilters,
+                                         int defaultFilterProbability) {
+        return compile(userConfigs, dynamicQueryTemplates, allFilters, defaultFilterProbability,
+                Collections.<List<String>, double[]>emptyMap());
+    }
+
+    public Map<String, UserPlan> compile(Map<String, BaseUserConfig> userConfigs,
+                                         Map<String, RandomQueryConfig> dynamicQueryTemplates,
+                                         List<String> allFilters,
+                                         int defaultFilterProbability,
+                                         Map<List<String>, double[]> filterWeights) {
+        if (userConfigs == null) {
+            throw new IllegalArgumentException("UserConfigs cannot be null");
+        }
+        Map<String, RandomQueryConfig> templates = dynamicQueryTemplates != null ? dynamicQueryTemplates : Collections.emptyMap();
+
+        List<String> userNames = new ArrayList<>(userConfigs.keySet());
+        Collections.sort(userNames);
+
+        RandomQueryConfig mixedQueries = usesMixedQueries(userConfigs) ? RandomQueryConfig.mixedOf(templates.values()) : null;
+        Map<String, UserPlan> plans = new HashMap<>();
+        try {
+            for (int id = 0; id < userNames.size(); id++) {
+                String userName = userNames.get(id);
+                plans.put(userName, compileUser(id, userConfigs.get(userName), templates, mixedQueries, allFilters,
+                        defaultFilterProbability, filterWeights != null ? filterWeights : Collections.emptyMap()));
+            }
+        } finally {
+            compiledFilters.clear();
+            weightedSamplers.clear();
+        }
+
+        return Collections.unmodifiableMap(plans);
+    }
+
+    private boolean usesMixedQueries(Map<String, BaseUserConfig> userConfigs) {
+        for (BaseUserConfig config : userConfigs.values()) {
+            if (config instanceof RandomUserConfig && ((RandomUserConfig) config).usesMixedQueries()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private UserPlan compileUser(int id, BaseUserConfig config, Map<String, RandomQueryConfig> dynamicQueryTemplates,
+                                 RandomQueryConfig mixedQueries, List<String> allFilters, int defaultFilterProbability,
+                                 Map<List<String>, double[]> filterWeights) {
+        FilterPool filterPool = compileFilterPool(config, allFilters, defaultFilterProbability, filterWeights);
+
+        if (config instanceof StaticUserConfig) {
+            StaticUserConfig staticConfig = (StaticUserConfig) config;
+            return new UserPlan(id, config.getUserName(), config.getUserType(),
+                    Collections.singletonList(new PagePlan(null, staticConfig.getQueriesAsConfigs(), config.getUserName())),
+                    filterPool,
+                    compileTimeStrategy(staticConfig));
+        } else if (config instanceof RandomUserConfig) {
+            RandomUserConfig randomConfig = (RandomUserConfig) config;
+            return new UserPlan(id, config.getUserName(), config.getUserType(),
+                    compilePages(randomConfig, dynamicQueryTemplates, mixedQueries),
+                    filterPool,
+                    compileTimeStrategy(randomConfig));
+        }
+
+        throw new IllegalStateException("Unknown UserType: " + config.getClass().getName());
+    }
+
+    private List<PagePlan> compilePages(RandomUserConfig config, Map<String, RandomQueryConfig> dynamicQueryTemplates,
+                                        RandomQueryConfig mixedQueries) {
+        if (config.usesMixedQueries()) {
+            return Collections.singletonList(new PagePlan(MIXED_PAGE_NAME,
+                    config.getMixedQueriesConfig(mixedQueries), config.getUserName() + " " + MIXED_PAGE_NAME));
+        }
+
+        Map<String, RandomQueryConfig> pages = config.hasInlineQueries() ? config.getQueries() : dynamicQueryTemplates;
+        List<PagePlan> result = new ArrayList<>(pages.size());
+        for (Map.Entry<String, RandomQueryConfig> page : pages.entrySet()) {
+            result.add(new PagePlan(page.getKey(), page.getValue(), config.getUserName() + " " + page.getKey()));
+        }
+        return result;
+    }
+
+    private TimeStrategy compileTimeStrategy(StaticUserConfig config) {
+        if (config.usesNamedTimePeriods()) {
+            return TimeStrategy.periods(config.getTimes(),
+                    config.getMaxTimeLeft() != null ? config.getMaxTimeLeft().longValue() : null,
+                    config.getMaxTimeRight() != null ? config.getMaxTimeRight().longValue() : null);
+        }
+        return TimeStrategy.fixed(config.getTimeLeftBorder(), config.getTimeRightBorder());
+    }
+
+    private TimeStrategy compileTimeStrategy(RandomUserConfig config) {
+        if (config.getTimes() != null && !config.getTimes().isEmpty()) {
+            return TimeStrategy.periods(config.getTimes(), config.getMaxTimeLeft(), config.getMaxTimeRight());
+        }
+        if (config.hasFixedTimeBorders()) {
+            return TimeStrategy.fixed(config.getTimeLeftBorder(), config.getTimeRightBorder());
+        }
+        return TimeStrategy.unconfigured("No time configuration available for user: " + config.getUserName());
+    }
+
+    private FilterPool compileFilterPool(BaseUserConfig config, List<String> allFilters, int defaultFilterProbability,
+                                         Map<List<String>, double[]> filterWeights) {
+        if (!config.isUsingFilters() || allFilters == null || allFilters.isEmpty()) {
+            return FilterPool.EMPTY;
+        }
+
+        List<String> filters = config.hasFilters() ? config.getFilters() : allFilters;
+        int probability = config.getFilterApplyProbability() != null
+                ? config.getFilterApplyProbability()
+                : defaultFilterProbability;
+
+        CompiledFilter[] compiled = compiledFilters.get(filters);
+        if (compiled == null) {
+            compiled = FilterPool.compile(filters);
+            compiledFilters.put(filters, compiled);
+        }
+        return new FilterPool(filters, compiled, compileFilterSampler(config, filters, filterWeights), probability,
+                config.getFilterCount().getMin(), config.getFilterCount().getMax(), config.getFilterJoin(), true);
+    }
+
+    private IndexSampler compileFilterSampler(BaseUserConfig config, List<String> filters,
+                                              Map<List<String>, double[]> filterWeights) {
+        if (config.getFilterDistribution() != null) {
+            return config.getFilterDistribution().createSampler(filters.size());
+        }
+        double[] weights = filterWeights.get(filters);
+        if (weights == null) {
+            return null;
+        }
+
+        IndexSampler sampler = weightedSamplers.get(filters);
+        if (sampler == null) {
+            sampler = AliasTable.of(weights);
+            weightedSamplers.put(filters, sampler);
+        }
+        return sampler;
+    }
+}
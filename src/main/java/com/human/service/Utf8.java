@@ -0,0 +1,115 @@
+package com.human.service;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public final class Utf8 {
+
+    private static final byte[] MIN_LONG = Long.toString(Long.MIN_VALUE).getBytes(StandardCharsets.US_ASCII);
+    private static final int MAX_LONG_DIGITS = 19;
+
+    private Utf8() {
+    }
+
+    public static byte[] toBytes(String value) {
+        return value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static int maxEncodedLength(CharSequence value) {
+        return value.length() * 3;
+    }
+
+    public static void encode(CharSequence value, ByteBuffer out) {
+        encode(value, 0, value.length(), out);
+    }
+
+    public static void encode(CharSequence value, int start, int end, ByteBuffer out) {
+        for (int i = start; i < end; i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                ensureRemaining(out, 2);
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                ensureRemaining(out, 4);
+                out.put((byte) (0xF0 | (codePoint >> 18)));
+                out.put((byte) (0x80 | ((codePoint >> 12) & 0x3F)));
+                out.put((byte) (0x80 | ((codePoint >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (codePoint & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                out.put((byte) '?');
+            } else {
+                ensureRemaining(out, 3);
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    public static void putLong(ByteBuffer out, long value) {
+        if (value == Long.MIN_VALUE) {
+            out.put(MIN_LONG);
+            return;
+        }
+        if (value < 0) {
+            out.put((byte) '-');
+            value = -value;
+        }
+
+        int digits = digitCount(value);
+        ensureRemaining(out, digits);
+        int end = out.position() + digits;
+        for (int i = end - 1; i >= end - digits; i--) {
+            out.put(i, (byte) ('0' + value % 10));
+            value /= 10;
+        }
+        out.position(end);
+    }
+
+    public static void appendLong(Appendable out, long value) throws IOException {
+        if (out instanceof StringBuilder) {
+            ((StringBuilder) out).append(value);
+            return;
+        }
+        if (value == Long.MIN_VALUE) {
+            out.append(Long.toString(Long.MIN_VALUE));
+            return;
+        }
+        if (value < 0) {
+            out.append('-');
+            value = -value;
+        }
+
+        long divisor = 1;
+        for (int i = 1; i < digitCount(value); i++) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            out.append((char) ('0' + (value / divisor) % 10));
+            divisor /= 10;
+        }
+    }
+
+    private static int digitCount(long value) {
+        long bound = 10;
+        for (int digits = 1; digits < MAX_LONG_DIGITS; digits++) {
+            if (value < bound) {
+                return digits;
+            }
+            bound *= 10;
+        }
+        return MAX_LONG_DIGITS;
+    }
+
+    private static void ensureRemaining(ByteBuffer out, int bytes) {
+        if (out.remaining() < bytes) {
+            throw new BufferOverflowException();
+        }
+    }
+}
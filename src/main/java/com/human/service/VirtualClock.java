@@ -0,0 +1,41 @@
+package com.human.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+final class VirtualClock implements QueryClock {
+
+    private final long startEpochSecond;
+    private final long originNanos;
+    private final double speed;
+    private final long stepSeconds;
+    private final AtomicLong reads = new AtomicLong();
+
+    private VirtualClock(long startEpochSecond, double speed, long stepSeconds) {
+        this.startEpochSecond = startEpochSecond;
+        this.originNanos = System.nanoTime();
+        this.speed = speed;
+        this.stepSeconds = stepSeconds;
+    }
+
+    static VirtualClock accelerated(long startEpochSecond, double speed) {
+        if (!(speed > 0) || Double.isInfinite(speed)) {
+            throw new IllegalArgumentException("Clock speed must be positive: " + speed);
+        }
+        return new VirtualClock(startEpochSecond, speed, 0);
+    }
+
+    static VirtualClock stepping(long startEpochSecond, long stepSeconds) {
+        if (stepSeconds < 0) {
+            throw new IllegalArgumentException("Clock step cannot be negative: " + stepSeconds);
+        }
+        return new VirtualClock(startEpochSecond, 0, stepSeconds);
+    }
+
+    @Override
+    public long currentTimeSeconds() {
+        if (speed == 0) {
+            return startEpochSecond + reads.getAndIncrement() * stepSeconds;
+        }
+        return startEpochSecond + (long) ((System.nanoTime() - originNanos) * speed / 1_000_000_000L);
+    }
+}
@@ -0,0 +1,30 @@
+package com.human.service;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Java 21+ implementation, packaged under {@code META-INF/versions/21}: tasks run on virtual threads, so callers can
+ * fan out one task per request without sizing a pool. Generation keeps its per-iteration state in pooled buffers
+ * rather than thread locals, so short-lived virtual threads do not each build their own.
+ */
+public final class QueryExecutors {
+
+    private static final ExecutorService VIRTUAL = newThreadPerTaskExecutor();
+
+    private QueryExecutors() {
+    }
+
+    public static Executor defaultExecutor() {
+        return VIRTUAL;
+    }
+
+    public static ExecutorService newThreadPerTaskExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("querycraft-async-", 0).factory());
+    }
+
+    public static boolean isVirtualThreadsAvailable() {
+        return true;
+    }
+}